@@ -0,0 +1,96 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Concurrent {@link Collector#lookup} calls, as done by plan threads. The {@code existing}
+ * benchmark looks up dependencies already present in the collector, {@code fresh} mostly adds
+ * new ones. Collectors and cursors are recreated for each iteration, so that every iteration
+ * starts inserting into a collector of the same size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CollectorLookupBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"1000"})
+        public int deps;
+
+        Collector collector;
+        String[] artifactIds;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            collector = new Collector();
+            artifactIds = new String[deps];
+            for (int i = 0; i < deps; i++) {
+                artifactIds[i] = "artifact-" + i;
+                collector.lookup("org.example", artifactIds[i], "jar", "", "1.0");
+            }
+        }
+    }
+
+    /** Collector that {@code fresh} adds to, separate from the one {@code existing} reads. */
+    @State(Scope.Benchmark)
+    public static class Growing extends Shared {}
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        long fresh;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            next = 0;
+            fresh = 0;
+        }
+    }
+
+    @Benchmark
+    public Dep existing(Shared shared, Cursor cursor) {
+        int i = cursor.next++ % shared.deps;
+        return shared.collector.lookup("org.example", shared.artifactIds[i], "jar", "", "1.0");
+    }
+
+    @Benchmark
+    public Dep fresh(Growing growing, Cursor cursor) {
+        long n = cursor.fresh++;
+        String version = Thread.currentThread().getId() + "." + n;
+        int i = (int) (n % growing.deps);
+        return growing.collector.lookup("org.example", growing.artifactIds[i], "jar", "", version);
+    }
+}
@@ -0,0 +1,188 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.codehaus.plexus.classworlds.launcher.Launcher;
+
+/**
+ * End-to-end benchmark, which generates a {@link SyntheticReactor} with its local repository and
+ * runs Maven with Dola Gleaner on it in-process, in offline mode, a number of times.
+ *
+ * <p>For every run wall time, time and number of resolver calls of each Gleaner phase (read from
+ * the report file), peak heap usage and final status are printed. Options are given as {@code
+ * --name=value}:
+ *
+ * <ul>
+ *   <li>{@code --maven-home} Maven 4 installation (required),
+ *   <li>{@code --extension} Dola Gleaner JAR (required),
+ *   <li>{@code --work} working directory, a temporary one by default,
+ *   <li>{@code --runs} number of runs, 3 by default,
+ *   <li>{@code --goals} build goals, {@code verify} by default,
+ *   <li>{@code --modules}, {@code --parent-depth}, {@code --plugins}, {@code --libraries}, {@code
+ *       --deps-per-module}, {@code --missing-ratio}, {@code --seed} shape of the reactor.
+ * </ul>
+ *
+ * Remaining arguments are passed to Maven, for example {@code -Ddola.gleaner.resolveThreads=8}.
+ */
+public class EndToEndHarness {
+
+    private static final Pattern PHASE =
+            Pattern.compile(
+                    "\"type\":\"phase\",\"phase\":\"([a-z-]+)\",\"millis\":(\\d+),"
+                            + "\"resolverCalls\":(\\d+)");
+    private static final Pattern STATUS =
+            Pattern.compile("\"type\":\"result\",\"status\":\"([^\"]*)\"");
+
+    private record Phase(long millis, long resolverCalls) {}
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> mavenArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 0) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else {
+                mavenArgs.add(arg);
+            }
+        }
+        String mavenHome = options.remove("maven-home");
+        String extension = options.remove("extension");
+        if (mavenHome == null || extension == null) {
+            System.err.println("Options --maven-home and --extension are required");
+            System.exit(1);
+        }
+        Path work =
+                options.containsKey("work")
+                        ? Path.of(options.remove("work"))
+                        : Files.createTempDirectory("dola-gleaner-e2e");
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        options.remove("runs");
+        String goals = options.getOrDefault("goals", "verify");
+        options.remove("goals");
+
+        SyntheticReactor reactor = new SyntheticReactor();
+        for (var option : options.entrySet()) {
+            String value = option.getValue();
+            switch (option.getKey()) {
+                case "modules" -> reactor.modules = Integer.parseInt(value);
+                case "parent-depth" -> reactor.parentDepth = Integer.parseInt(value);
+                case "plugins" -> reactor.plugins = Integer.parseInt(value);
+                case "libraries" -> reactor.libraries = Integer.parseInt(value);
+                case "deps-per-module" -> reactor.depsPerModule = Integer.parseInt(value);
+                case "missing-ratio" -> reactor.missingRatio = Double.parseDouble(value);
+                case "seed" -> reactor.seed = Long.parseLong(value);
+                default ->
+                        throw new IllegalArgumentException("Unknown option --" + option.getKey());
+            }
+        }
+
+        Path project = work.resolve("project");
+        Path repo = work.resolve("repository");
+        int missing = reactor.generate(project, repo);
+        System.out.printf(
+                "Generated %d modules, %d of %d libraries missing, in %s%n",
+                reactor.modules, missing, reactor.libraries, work);
+
+        System.setProperty("maven.home", mavenHome);
+        System.setProperty("classworlds.conf", Path.of(mavenHome, "bin", "m2.conf").toString());
+        System.setProperty("maven.multiModuleProjectDirectory", project.toString());
+
+        for (int run = 1; run <= runs; run++) {
+            Path report = work.resolve("report-" + run + ".ndjson");
+            List<String> cmd = new ArrayList<>();
+            cmd.addAll(List.of(goals.split("\\s+")));
+            cmd.add("-B");
+            cmd.add("-o");
+            cmd.add("-l");
+            cmd.add(work.resolve("build-" + run + ".log").toString());
+            cmd.add("-f");
+            cmd.add(project.resolve("pom.xml").toString());
+            cmd.add("-Dmaven.repo.local=" + repo);
+            cmd.add("-Dmaven.ext.class.path=" + extension);
+            cmd.add("-Ddola.gleaner.reportFile=" + report);
+            cmd.add("-Ddola.gleaner.outputFile=" + work.resolve("brs-" + run + ".txt"));
+            cmd.addAll(mavenArgs);
+
+            resetPeakHeap();
+            long start = System.nanoTime();
+            int exitCode = Launcher.mainWithExitCode(cmd.toArray(new String[0]));
+            long wall = (System.nanoTime() - start) / 1_000_000;
+            long heap = peakHeap();
+
+            Map<String, Phase> phases = new LinkedHashMap<>();
+            String status = "unknown";
+            if (Files.exists(report)) {
+                for (String line : Files.readAllLines(report)) {
+                    Matcher m = PHASE.matcher(line);
+                    if (m.find()) {
+                        phases.put(
+                                m.group(1),
+                                new Phase(Long.parseLong(m.group(2)), Long.parseLong(m.group(3))));
+                    }
+                    m = STATUS.matcher(line);
+                    if (m.find()) {
+                        status = m.group(1);
+                    }
+                }
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(
+                    String.format(
+                            "Run %d: exit %d, status %s, wall %d ms", run, exitCode, status, wall));
+            for (var phase : phases.entrySet()) {
+                sb.append(
+                        String.format(
+                                ", %s %d ms/%d calls",
+                                phase.getKey(),
+                                phase.getValue().millis(),
+                                phase.getValue().resolverCalls()));
+            }
+            sb.append(String.format(", peak heap %d MiB", heap >> 20));
+            System.out.println(sb);
+        }
+    }
+}
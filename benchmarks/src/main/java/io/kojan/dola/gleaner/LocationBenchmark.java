@@ -0,0 +1,90 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.api.model.Dependency;
+import org.apache.maven.api.model.InputLocation;
+import org.apache.maven.api.model.InputLocationTracker;
+import org.apache.maven.api.model.InputSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recording of declaration locations with {@link Dep#foundAt} and formatting them with {@link
+ * Dep#foundLocations}, for a dependency declared in many modules.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationBenchmark {
+
+    @Param({"1", "100"})
+    public int modules;
+
+    private SourceTable sources;
+    private InputLocationTracker[] trackers;
+    private Dep declared;
+
+    private static InputLocationTracker tracker(String pom, int line) {
+        InputLocation location = new InputLocation(line, 5, new InputSource(null, pom));
+        return Dependency.newBuilder()
+                .groupId("org.example")
+                .artifactId("example")
+                .location("", location)
+                .build();
+    }
+
+    @Setup
+    public void setup() {
+        sources = new SourceTable();
+        trackers = new InputLocationTracker[modules];
+        for (int i = 0; i < modules; i++) {
+            trackers[i] = tracker("file:///builddir/build/module-" + i + "/pom.xml", 40 + i);
+        }
+        declared = new Dep(sources, "org.example", "example", "jar", "", "1.0");
+        for (InputLocationTracker tracker : trackers) {
+            declared.foundAt(tracker);
+        }
+    }
+
+    @Benchmark
+    public Dep foundAt() {
+        Dep dep = new Dep(sources, "org.example", "example", "jar", "", "1.0");
+        for (InputLocationTracker tracker : trackers) {
+            dep.foundAt(tracker);
+        }
+        return dep;
+    }
+
+    @Benchmark
+    public List<String> foundLocations() {
+        return declared.foundLocations();
+    }
+}
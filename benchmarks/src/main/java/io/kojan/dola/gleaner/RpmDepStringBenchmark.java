@@ -0,0 +1,71 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Formatting of RPM dependency strings for dependencies of different shapes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RpmDepStringBenchmark {
+
+    @Param({"plain", "extension", "classifier", "compat"})
+    public String shape;
+
+    private Dep dep;
+
+    @Setup
+    public void setup() {
+        SourceTable sources = new SourceTable();
+        dep =
+                switch (shape) {
+                    case "plain" ->
+                            new Dep(sources, "org.apache.commons", "commons-lang3", "jar", "", "3");
+                    case "extension" ->
+                            new Dep(sources, "org.apache.maven", "maven-parent", "pom", "", "43");
+                    case "classifier" ->
+                            new Dep(
+                                    sources,
+                                    "io.netty",
+                                    "netty-transport-native-epoll",
+                                    "jar",
+                                    "linux-x86_64",
+                                    "4.1.0");
+                    default -> new Dep(sources, "junit", "junit", "jar", "", "3.8.2");
+                };
+        dep.resolvedVersion = shape.equals("compat") ? "3" : "SYSTEM";
+    }
+
+    @Benchmark
+    public String rpmDepString() {
+        return dep.rpmDepString();
+    }
+}
@@ -0,0 +1,116 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Filter and compat version rule matching with large rule sets. A third of the rules are
+ * literals, a third are prefixes and the rest are general regular expressions, mimicking rule
+ * files used by distribution builds.
+ *
+ * <p>{@code filterRepeated} and {@code compatRepeated} match keys that were seen before, {@code
+ * filterCold} and {@code compatCold} build the rule index and match every key once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleMatchingBenchmark {
+
+    @Param({"10", "1000"})
+    public int rules;
+
+    @Param({"500"})
+    public int deps;
+
+    private Properties properties;
+    private Dep[] depArray;
+    private DependencyFilter filter;
+    private CompatVersionResolver compat;
+
+    private static String rule(int i) {
+        return switch (i % 3) {
+            case 0 -> "org\\.example" + i + ":artifact" + i;
+            case 1 -> "org\\.example" + i + ":.*";
+            default -> "org\\.example" + i + ":artifact[0-9]+-" + i;
+        };
+    }
+
+    @Setup
+    public void setup() {
+        properties = new Properties();
+        for (int i = 0; i < rules; i++) {
+            properties.setProperty(String.format("dola.gleaner.filter.%05d", i), rule(i));
+            properties.setProperty(
+                    String.format("dola.gleaner.version.%05d", i), rule(i) + "=" + i);
+        }
+        SourceTable sources = new SourceTable();
+        depArray = new Dep[deps];
+        for (int i = 0; i < deps; i++) {
+            // Even dependencies have a rule of their own, which they match unless it is a regex
+            int n = i % 2 == 0 ? i % rules : rules + i;
+            depArray[i] = new Dep(sources, "org.example" + n, "artifact" + n, "jar", "", "1.0");
+        }
+        filter = DependencyFilter.parseFromProperties(properties);
+        compat = CompatVersionResolver.parseFromProperties(properties);
+    }
+
+    @Benchmark
+    public void filterRepeated(Blackhole bh) {
+        for (Dep dep : depArray) {
+            bh.consume(filter.isDependencyFiltered(dep));
+        }
+    }
+
+    @Benchmark
+    public void compatRepeated(Blackhole bh) {
+        for (Dep dep : depArray) {
+            bh.consume(compat.resolveVersionFor(dep));
+        }
+    }
+
+    @Benchmark
+    public void filterCold(Blackhole bh) {
+        DependencyFilter coldFilter = DependencyFilter.parseFromProperties(properties);
+        for (Dep dep : depArray) {
+            bh.consume(coldFilter.isDependencyFiltered(dep));
+        }
+    }
+
+    @Benchmark
+    public void compatCold(Blackhole bh) {
+        CompatVersionResolver coldCompat = CompatVersionResolver.parseFromProperties(properties);
+        for (Dep dep : depArray) {
+            bh.consume(coldCompat.resolveVersionFor(dep));
+        }
+    }
+}
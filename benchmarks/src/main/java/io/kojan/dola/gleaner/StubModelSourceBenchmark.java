@@ -0,0 +1,102 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
+import org.apache.maven.api.model.Model;
+import org.apache.maven.model.v4.MavenStaxWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creation of stub models and reading them back. {@code cached} creates stubs of the same artifact
+ * over and over, as Maven does when a parent or dependency POM is requested by many modules;
+ * {@code unique} creates a stub of a different artifact each time. {@code staxWriter} is the
+ * baseline: a stub rendered from a {@link Model} with {@link MavenStaxWriter}, as it was done
+ * before stubs were rendered from a byte template.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StubModelSourceBenchmark {
+
+    private static final int VERSIONS = 4096;
+
+    private int counter;
+
+    private static byte[] read(StubModelSource source) throws IOException {
+        try (InputStream is = source.openStream()) {
+            return is.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public byte[] cached() throws IOException {
+        return read(new StubModelSource("org.example", "example-parent", "1.0", "pom"));
+    }
+
+    /** Returns a version not seen since the cache was last cleared, keeping the cache bounded. */
+    private String nextVersion() {
+        if (++counter == VERSIONS) {
+            counter = 0;
+            StubModelSource.clearCache();
+        }
+        return Integer.toString(counter);
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        counter = 0;
+        StubModelSource.clearCache();
+    }
+
+    @Benchmark
+    public byte[] unique() throws IOException {
+        return read(new StubModelSource("org.example", "example<&>", nextVersion(), "jar"));
+    }
+
+    @Benchmark
+    public byte[] staxWriter() throws IOException, XMLStreamException {
+        Model model =
+                Model.newBuilder()
+                        .modelVersion("4.0.0")
+                        .groupId("org.example")
+                        .artifactId("example<&>")
+                        .version(nextVersion())
+                        .packaging("jar")
+                        .build();
+        StringWriter sw = new StringWriter();
+        new MavenStaxWriter().write(sw, model);
+        return sw.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,208 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generator of synthetic multi-module projects together with a local repository containing
+ * everything they need, except for a configurable share of missing libraries.
+ *
+ * <p>The reactor consists of an aggregator and {@code modules} modules of packaging {@code pom},
+ * so that no default lifecycle plugins are needed. The aggregator inherits from a chain of {@code
+ * parentDepth} parent POMs in the repository. Each module depends on the previous module and on
+ * {@code depsPerModule} libraries picked at random out of {@code libraries}, and binds {@code
+ * plugins} synthetic plugins, each with a single goal requiring test-scope dependency resolution.
+ * A {@code missingRatio} share of libraries is not installed in the repository.
+ */
+class SyntheticReactor {
+
+    static final String GROUP_ID = "org.example.synthetic";
+
+    int modules = 50;
+    int parentDepth = 3;
+    int plugins = 5;
+    int libraries = 200;
+    int depsPerModule = 10;
+    double missingRatio = 0;
+    long seed = 42;
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+    }
+
+    private static Path artifact(Path repo, String groupId, String artifactId, String ext) {
+        return repo.resolve(groupId.replace('.', '/'))
+                .resolve(artifactId)
+                .resolve("1.0")
+                .resolve(artifactId + "-1.0." + ext);
+    }
+
+    private static String gav(String groupId, String artifactId) {
+        return "<groupId>"
+                + groupId
+                + "</groupId><artifactId>"
+                + artifactId
+                + "</artifactId><version>1.0</version>";
+    }
+
+    private static String pom(String parent, String gav, String packaging, String body) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + (parent != null ? "  <parent>" + parent + "</parent>\n" : "")
+                + "  "
+                + gav
+                + "\n  <packaging>"
+                + packaging
+                + "</packaging>\n"
+                + body
+                + "</project>\n";
+    }
+
+    private static void jar(Path path, String entry, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        try (OutputStream os = Files.newOutputStream(path);
+                ZipOutputStream zos = new ZipOutputStream(os)) {
+            if (entry != null) {
+                zos.putNextEntry(new ZipEntry(entry));
+                zos.write(content.getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            } else {
+                zos.putNextEntry(new ZipEntry("META-INF/"));
+                zos.closeEntry();
+            }
+        }
+    }
+
+    private static String pluginXml(String artifactId) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<plugin>\n"
+                + "  <name>"
+                + artifactId
+                + "</name>\n  "
+                + gav(GROUP_ID + ".plugins", artifactId)
+                + "\n  <goalPrefix>"
+                + artifactId
+                + "</goalPrefix>\n"
+                + "  <mojos>\n"
+                + "    <mojo>\n"
+                + "      <goal>run</goal>\n"
+                + "      <phase>validate</phase>\n"
+                + "      <requiresDependencyResolution>test</requiresDependencyResolution>\n"
+                + "      <implementation>org.example.synthetic.RunMojo</implementation>\n"
+                + "      <language>java</language>\n"
+                + "      <threadSafe>true</threadSafe>\n"
+                + "      <parameters/>\n"
+                + "    </mojo>\n"
+                + "  </mojos>\n"
+                + "  <dependencies/>\n"
+                + "</plugin>\n";
+    }
+
+    /**
+     * Writes the reactor into {@code project} and the local repository into {@code repo}.
+     *
+     * @return number of libraries left out of the repository
+     */
+    int generate(Path project, Path repo) throws IOException {
+        Random random = new Random(seed);
+
+        String parent = null;
+        for (int d = parentDepth; d > 0; d--) {
+            String artifactId = "parent-" + d;
+            String gav = gav(GROUP_ID + ".parents", artifactId);
+            write(
+                    artifact(repo, GROUP_ID + ".parents", artifactId, "pom"),
+                    pom(parent, gav, "pom", ""));
+            parent = gav;
+        }
+
+        BitSet missing = new BitSet(libraries);
+        for (int i = 0; i < libraries; i++) {
+            String artifactId = "lib-" + i;
+            if (random.nextDouble() < missingRatio) {
+                missing.set(i);
+                continue;
+            }
+            write(
+                    artifact(repo, GROUP_ID + ".libs", artifactId, "pom"),
+                    pom(null, gav(GROUP_ID + ".libs", artifactId), "jar", ""));
+            jar(artifact(repo, GROUP_ID + ".libs", artifactId, "jar"), null, null);
+        }
+
+        StringBuilder build = new StringBuilder("  <build>\n    <plugins>\n");
+        for (int i = 0; i < plugins; i++) {
+            String artifactId = "plugin-" + i;
+            write(
+                    artifact(repo, GROUP_ID + ".plugins", artifactId, "pom"),
+                    pom(null, gav(GROUP_ID + ".plugins", artifactId), "maven-plugin", ""));
+            jar(
+                    artifact(repo, GROUP_ID + ".plugins", artifactId, "jar"),
+                    "META-INF/maven/plugin.xml",
+                    pluginXml(artifactId));
+            build.append("      <plugin>")
+                    .append(gav(GROUP_ID + ".plugins", artifactId))
+                    .append("<executions><execution><goals><goal>run</goal></goals>")
+                    .append("</execution></executions></plugin>\n");
+        }
+        build.append("    </plugins>\n  </build>\n");
+
+        StringBuilder moduleList = new StringBuilder("  <modules>\n");
+        for (int m = 0; m < modules; m++) {
+            moduleList.append("    <module>module-").append(m).append("</module>\n");
+        }
+        moduleList.append("  </modules>\n");
+        String reactorGav = gav(GROUP_ID, "reactor");
+        write(project.resolve("pom.xml"), pom(parent, reactorGav, "pom", moduleList.toString()));
+
+        for (int m = 0; m < modules; m++) {
+            StringBuilder body = new StringBuilder("  <dependencies>\n");
+            if (m > 0) {
+                body.append("    <dependency>")
+                        .append(gav(GROUP_ID, "module-" + (m - 1)))
+                        .append("<type>pom</type></dependency>\n");
+            }
+            int[] libs =
+                    random.ints(0, libraries)
+                            .distinct()
+                            .limit(Math.min(depsPerModule, libraries))
+                            .toArray();
+            for (int i = 0; i < libs.length; i++) {
+                int lib = libs[i];
+                body.append("    <dependency>")
+                        .append(gav(GROUP_ID + ".libs", "lib-" + lib))
+                        .append("<scope>")
+                        .append(i % 2 == 0 ? "compile" : "test")
+                        .append("</scope></dependency>\n");
+            }
+            body.append("  </dependencies>\n").append(build);
+            write(
+                    project.resolve("module-" + m).resolve("pom.xml"),
+                    pom(reactorGav, gav(GROUP_ID, "module-" + m), "pom", body.toString()));
+        }
+        return missing.cardinality();
+    }
+}
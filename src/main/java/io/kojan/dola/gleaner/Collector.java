@@ -15,8 +15,12 @@
  */
 package io.kojan.dola.gleaner;
 
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.apache.maven.api.ArtifactCoordinates;
@@ -29,9 +33,47 @@ public class Collector {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    final Map<String, Dep> deps = new TreeMap<>();
+    private final Map<CoordKey, Dep> deps = new ConcurrentHashMap<>();
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final SourceTable sources = new SourceTable();
+    private final ThreadLocal<Set<Dep>> recording = new ThreadLocal<>();
+    private volatile Map<CoordKey, Boolean> resolutions = Map.of();
 
-    synchronized Dep lookup(ArtifactCoordinates coords) {
+    private String intern(String str) {
+        if (str == null) {
+            return null;
+        }
+        String interned = strings.putIfAbsent(str, str);
+        return interned != null ? interned : str;
+    }
+
+    SourceTable sources() {
+        return sources;
+    }
+
+    /**
+     * Starts recording dependencies looked up by the current thread into given set, until {@link
+     * #stopRecording} is called. Recordings can be nested; dependencies recorded by a nested
+     * recording are added to the enclosing one when it stops.
+     *
+     * @return sink of the enclosing recording, to be passed to {@link #stopRecording}
+     */
+    Set<Dep> startRecording(Set<Dep> sink) {
+        Set<Dep> outer = recording.get();
+        recording.set(sink);
+        return outer;
+    }
+
+    void stopRecording(Set<Dep> outer) {
+        if (outer != null) {
+            outer.addAll(recording.get());
+            recording.set(outer);
+        } else {
+            recording.remove();
+        }
+    }
+
+    Dep lookup(ArtifactCoordinates coords) {
         Dep dep =
                 lookup(
                         coords.getGroupId(),
@@ -43,21 +85,83 @@ public class Collector {
         return dep;
     }
 
-    synchronized Dep lookup(
+    Dep lookup(
             String groupId,
             String artifactId,
             String extension,
             String classifier,
             String version) {
-        Dep dep = new Dep(groupId, artifactId, extension, classifier, version);
-        return deps.computeIfAbsent(dep.id, x -> dep);
+        Dep dep = deps.get(new CoordKey(groupId, artifactId, extension, classifier, version));
+        if (dep == null) {
+            // Map keys are built from interned components
+            Dep created =
+                    new Dep(
+                            sources,
+                            intern(groupId),
+                            intern(artifactId),
+                            intern(extension),
+                            intern(classifier),
+                            intern(version));
+            created.resolved = resolutions.get(created.key);
+            dep = deps.putIfAbsent(created.key, created);
+            if (dep == null) {
+                dep = created;
+            }
+        }
+        Set<Dep> sink = recording.get();
+        if (sink != null) {
+            sink.add(dep);
+        }
+        return dep;
     }
 
-    public void summarize() {
+    /** Returns a snapshot of all collected dependencies, sorted by their ID. */
+    List<Dep> sortedDeps() {
+        return deps.values().stream().sorted(Comparator.comparing(dep -> dep.id)).toList();
+    }
+
+    /** Returns a copy of all collected dependencies, which can be restored by {@link #restore}. */
+    Map<CoordKey, Dep> snapshot() {
+        Map<CoordKey, Dep> snapshot = new HashMap<>();
         for (Dep dep : deps.values()) {
+            snapshot.put(dep.key, dep.copy());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Restores collected dependencies to given snapshot. Resolution results of dependencies
+     * collected since the snapshot was taken are remembered, so that these dependencies are not
+     * resolved again if they are looked up later.
+     */
+    void restore(Map<CoordKey, Dep> snapshot) {
+        Map<CoordKey, Boolean> known = new HashMap<>(resolutions);
+        for (Dep dep : deps.values()) {
+            if (dep.resolved != null) {
+                known.put(dep.key, dep.resolved);
+            }
+        }
+        resolutions = known;
+        deps.clear();
+        for (Dep dep : snapshot.values()) {
+            deps.put(dep.key, dep.copy());
+        }
+    }
+
+    void reset() {
+        resolutions = Map.of();
+        deps.clear();
+        strings.clear();
+        sources.clear();
+    }
+
+    public void summarize() {
+        for (Dep dep : sortedDeps()) {
             logger.debug("Found dependency: {}", dep.id);
-            for (String location : dep.foundLocations) {
-                logger.debug("  at {}", location);
+            if (logger.isDebugEnabled()) {
+                for (String location : dep.foundLocations()) {
+                    logger.debug("  at {}", location);
+                }
             }
         }
     }
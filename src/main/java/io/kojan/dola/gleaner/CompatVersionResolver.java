@@ -15,18 +15,27 @@
  */
 package io.kojan.dola.gleaner;
 
-import java.util.LinkedHashMap;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
-import java.util.regex.Pattern;
 
 public class CompatVersionResolver {
 
-    private final Map<Pattern, String> map;
+    private final RuleIndex<String> rules;
 
-    private CompatVersionResolver(Map<Pattern, String> map) {
-        this.map = Map.copyOf(map);
+    private CompatVersionResolver(List<String> matchers, List<String> versions) {
+        this.rules = new RuleIndex<>(matchers, versions);
+    }
+
+    private static void parseRule(
+            String source, String val, List<String> matchers, List<String> versions) {
+        String[] valSplit = val.split("=", 3);
+        if (valSplit.length != 2) {
+            throw new RuntimeException("Invalid " + source + ": " + val);
+        }
+        matchers.add(valSplit[0]);
+        versions.add(valSplit[1]);
     }
 
     public static CompatVersionResolver parseFromProperties(Properties properties) {
@@ -36,29 +45,23 @@ public class CompatVersionResolver {
                         .filter(key -> key.toString().startsWith("dola.gleaner.version."))
                         .sorted()
                         .toList();
-        Map<Pattern, String> map = new LinkedHashMap<>();
+        List<String> matchers = new ArrayList<>();
+        List<String> versions = new ArrayList<>();
         for (String key : keys) {
             String val = properties.getProperty(key);
-            String[] valSplit = val.split("=", 3);
-            if (valSplit.length != 2) {
-                throw new RuntimeException("Invalid property value of " + key + ": " + val);
+            parseRule("property value of " + key, val, matchers, versions);
+        }
+        String file = properties.getProperty("dola.gleaner.versionFile");
+        if (file != null) {
+            for (String line : RuleIndex.readRuleFile(Path.of(file))) {
+                parseRule("rule in " + file, line, matchers, versions);
             }
-            String matcher = valSplit[0];
-            String version = valSplit[1];
-            map.put(Pattern.compile(matcher), version);
         }
-        return new CompatVersionResolver(map);
+        return new CompatVersionResolver(matchers, versions);
     }
 
     public String resolveVersionFor(Dep dep) {
-        String depId = dep.groupId + ":" + dep.artifactId;
-        for (var entry : map.entrySet()) {
-            Pattern pattern = entry.getKey();
-            String version = entry.getValue();
-            if (pattern.matcher(depId).matches()) {
-                return version;
-            }
-        }
-        return "SYSTEM";
+        String version = rules.match(dep.ruleKey);
+        return version != null ? version : "SYSTEM";
     }
 }
@@ -0,0 +1,63 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.Properties;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Properties configuring the current build. They are taken from the Maven session rather than
+ * from JVM system properties, so that a JVM that is reused for many builds (for example an mvnd
+ * daemon) sees the properties of the build being executed.
+ */
+@Named
+@Singleton
+public class Configuration {
+
+    private volatile Properties properties = System.getProperties();
+
+    void load(MavenSession session) {
+        Properties props = new Properties();
+        props.putAll(System.getProperties());
+        props.putAll(session.getSystemProperties());
+        props.putAll(session.getUserProperties());
+        load(props);
+    }
+
+    /** Uses given properties as configuration of the current build. */
+    void load(Properties props) {
+        properties = props;
+    }
+
+    Properties getProperties() {
+        return properties;
+    }
+
+    String get(String key) {
+        return properties.getProperty(key);
+    }
+
+    String get(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+}
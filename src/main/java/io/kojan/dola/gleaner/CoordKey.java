@@ -0,0 +1,103 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Immutable artifact coordinates used as a hash key. The hash code is computed once, and
+ * components that are not relevant for a given kind of key are {@code null}: reactor keys have
+ * only groupId, artifactId and version, rule keys only groupId and artifactId.
+ *
+ * <p>Keys are cheap to create from strings already held by the model. Keys stored in long-lived
+ * maps are built from interned components, so that comparing two keys is usually a matter of
+ * reference comparisons.
+ */
+final class CoordKey {
+
+    final String groupId;
+    final String artifactId;
+    final String extension;
+    final String classifier;
+    final String version;
+    private final int hash;
+
+    CoordKey(
+            String groupId,
+            String artifactId,
+            String extension,
+            String classifier,
+            String version) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.extension = extension;
+        this.classifier = classifier;
+        this.version = version;
+        int h = Objects.hashCode(groupId);
+        h = 31 * h + Objects.hashCode(artifactId);
+        h = 31 * h + Objects.hashCode(extension);
+        h = 31 * h + Objects.hashCode(classifier);
+        h = 31 * h + Objects.hashCode(version);
+        this.hash = h;
+    }
+
+    /** Key of a reactor project. */
+    static CoordKey project(String groupId, String artifactId, String version) {
+        return new CoordKey(groupId, artifactId, null, null, version);
+    }
+
+    /** Key consisting of groupId and artifactId only, as matched by filter and version rules. */
+    static CoordKey rule(String groupId, String artifactId) {
+        return new CoordKey(groupId, artifactId, null, null, null);
+    }
+
+    private static boolean same(String a, String b) {
+        return a == b || a != null && a.equals(b);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        return obj instanceof CoordKey other
+                && hash == other.hash
+                && same(groupId, other.groupId)
+                && same(artifactId, other.artifactId)
+                && same(extension, other.extension)
+                && same(classifier, other.classifier)
+                && same(version, other.version);
+    }
+
+    /** Returns non-null components joined with colons. */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(":");
+        String[] components = {groupId, artifactId, extension, classifier, version};
+        for (String component : components) {
+            if (component != null) {
+                joiner.add(component);
+            }
+        }
+        return joiner.toString();
+    }
+}
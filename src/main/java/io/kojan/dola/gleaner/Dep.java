@@ -15,24 +15,29 @@
  */
 package io.kojan.dola.gleaner;
 
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Arrays;
+import java.util.List;
 import org.apache.maven.api.ArtifactCoordinates;
-import org.apache.maven.api.model.InputLocation;
 import org.apache.maven.api.model.InputLocationTracker;
-import org.apache.maven.api.model.InputSource;
 
 class Dep {
+    final CoordKey key;
+    final CoordKey ruleKey;
     final String id;
     final String groupId;
     final String artifactId;
     final String extension;
     final String classifier;
     final String requestedVersion;
-    ArtifactCoordinates coords;
-    final Set<String> foundLocations = new TreeSet<>();
-    Boolean resolved;
-    String resolvedVersion;
+    volatile ArtifactCoordinates coords;
+    private final SourceTable sources;
+    private volatile long[] locations = new long[0];
+    volatile Boolean resolved;
+    volatile String resolvedVersion;
+    /** Phase at the end of which the dependency was first resolved. */
+    volatile String phase;
+    /** Whether the dependency is required transitively by another one, in transitive mode. */
+    volatile boolean transitive;
 
     static String rpmDepString(
             String groupId,
@@ -83,37 +88,70 @@ class Dep {
                 groupId, artifactId, extension, classifier, resolvedVersion, null, null);
     }
 
-    private String location(InputLocationTracker obj) {
-        InputLocation location = obj.getLocation("");
-        if (location == null) {
-            return "UNKNOWN-location";
-        }
-        int line = location.getLineNumber();
-        InputSource source = location.getSource();
-        String url = source.getLocation();
-        if (url == null) {
-            url = "UNKNOWN";
+    long foundAt(InputLocationTracker obj) {
+        long location = sources.location(obj);
+        foundAt(location);
+        return location;
+    }
+
+    void foundAt(long location) {
+        // Locations are kept sorted and deduplicated; the array is replaced, never modified
+        synchronized (this) {
+            int i = Arrays.binarySearch(locations, location);
+            if (i < 0) {
+                i = -i - 1;
+                long[] newLocations = new long[locations.length + 1];
+                System.arraycopy(locations, 0, newLocations, 0, i);
+                newLocations[i] = location;
+                System.arraycopy(locations, i, newLocations, i + 1, locations.length - i);
+                locations = newLocations;
+            }
         }
-        url = url.replaceAll("^file://", "");
-        return url + " line " + line;
     }
 
-    void foundAt(InputLocationTracker location) {
-        foundLocations.add(location(location));
+    boolean isStrong() {
+        return locations.length > 0;
+    }
+
+    /** Returns URL of the first POM this dependency was found in, or {@code null}. */
+    String firstSource() {
+        long[] locs = locations;
+        return locs.length > 0 ? sources.url(locs[0]) : null;
     }
 
-    public Dep(
+    /** Returns declaration locations formatted as strings, in lexicographic order. */
+    List<String> foundLocations() {
+        return Arrays.stream(locations).mapToObj(sources::format).sorted().distinct().toList();
+    }
+
+    Dep(
+            SourceTable sources,
             String groupId,
             String artifactId,
             String extension,
             String classifier,
             String version) {
+        this.sources = sources;
         this.groupId = groupId;
         this.artifactId = artifactId;
         this.extension = extension;
         this.classifier = classifier;
         this.requestedVersion = version;
-        this.id = groupId + ':' + artifactId + ':' + extension + ':' + classifier + ':' + version;
+        this.key = new CoordKey(groupId, artifactId, extension, classifier, version);
+        this.ruleKey = CoordKey.rule(groupId, artifactId);
+        this.id = key.toString();
+    }
+
+    /** Returns a copy of this dependency, including its locations and resolution state. */
+    Dep copy() {
+        Dep dep = new Dep(sources, groupId, artifactId, extension, classifier, requestedVersion);
+        dep.coords = coords;
+        dep.locations = locations;
+        dep.resolved = resolved;
+        dep.resolvedVersion = resolvedVersion;
+        dep.phase = phase;
+        dep.transitive = transitive;
+        return dep;
     }
 
     @Override
@@ -15,17 +15,19 @@
  */
 package io.kojan.dola.gleaner;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
-import java.util.regex.Pattern;
 
 public class DependencyFilter {
 
-    private final List<Pattern> patterns;
+    private final RuleIndex<Boolean> rules;
 
-    private DependencyFilter(List<Pattern> patterns) {
-        this.patterns = List.copyOf(patterns);
+    private DependencyFilter(List<String> patterns) {
+        this.rules =
+                new RuleIndex<>(patterns, Collections.nCopies(patterns.size(), Boolean.TRUE));
     }
 
     public static DependencyFilter parseFromProperties(Properties properties) {
@@ -35,21 +37,19 @@ public class DependencyFilter {
                         .filter(key -> key.toString().startsWith("dola.gleaner.filter."))
                         .sorted()
                         .toList();
-        List<Pattern> patterns = new ArrayList<>();
+        List<String> patterns = new ArrayList<>();
         for (String key : keys) {
             String val = properties.getProperty(key);
-            patterns.add(Pattern.compile(val));
+            patterns.add(val);
+        }
+        String file = properties.getProperty("dola.gleaner.filterFile");
+        if (file != null) {
+            patterns.addAll(RuleIndex.readRuleFile(Path.of(file)));
         }
         return new DependencyFilter(patterns);
     }
 
     public boolean isDependencyFiltered(Dep dep) {
-        String depId = dep.groupId + ":" + dep.artifactId;
-        for (Pattern pattern : patterns) {
-            if (pattern.matcher(depId).matches()) {
-                return true;
-            }
-        }
-        return false;
+        return rules.match(dep.ruleKey) != null;
     }
 }
@@ -0,0 +1,122 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.api.ArtifactCoordinates;
+import org.apache.maven.api.Dependency;
+import org.apache.maven.api.Node;
+import org.apache.maven.api.PathScope;
+import org.apache.maven.api.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects transitive dependencies of artifacts in transitive mode.
+ *
+ * <p>Dependency graphs are memoized by artifact coordinates and path scope for the duration of a
+ * session, so that a graph shared by many modules and plugins is collected once. Concurrent
+ * requests for the same graph wait for a single collection.
+ */
+@Named
+@Singleton
+public class DependencyGraphs {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Inject private Metrics metrics;
+
+    private final ConcurrentMap<String, CompletableFuture<List<ArtifactCoordinates>>> graphs =
+            new ConcurrentHashMap<>();
+
+    /** Forgets memoized graphs. Called when a session starts. */
+    void clearCache() {
+        graphs.clear();
+    }
+
+    /**
+     * Returns coordinates of transitive dependencies of given artifact in given scope, excluding
+     * the artifact itself. If the graph cannot be collected, the exception is rethrown and nothing
+     * is memoized, so that the graph is collected again when requested later.
+     */
+    List<ArtifactCoordinates> collect(
+            Session session, ArtifactCoordinates coords, PathScope scope) {
+        String key =
+                coords.getGroupId()
+                        + ':'
+                        + coords.getArtifactId()
+                        + ':'
+                        + coords.getExtension()
+                        + ':'
+                        + coords.getClassifier()
+                        + ':'
+                        + coords.getVersionConstraint()
+                        + '@'
+                        + scope.id();
+        CompletableFuture<List<ArtifactCoordinates>> future = graphs.get(key);
+        if (future == null) {
+            CompletableFuture<List<ArtifactCoordinates>> ours = new CompletableFuture<>();
+            future = graphs.putIfAbsent(key, ours);
+            if (future == null) {
+                try {
+                    List<ArtifactCoordinates> result = load(session, coords, scope, key);
+                    ours.complete(result);
+                    return result;
+                } catch (RuntimeException | Error e) {
+                    graphs.remove(key, ours);
+                    ours.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    private List<ArtifactCoordinates> load(
+            Session session, ArtifactCoordinates coords, PathScope scope, String key) {
+        long start = metrics.start();
+        List<ArtifactCoordinates> result = new ArrayList<>();
+        try {
+            Node root =
+                    session.collectDependencies(session.createDependencyCoordinates(coords), scope);
+            root.stream()
+                    .filter(node -> node != root)
+                    .map(Node::getDependency)
+                    .filter(dependency -> dependency != null)
+                    .map(Dependency::toCoordinates)
+                    .forEach(result::add);
+            logger.debug("Collected {} transitive dependencies of {}", result.size(), key);
+        } finally {
+            metrics.record("collectDependencies", key, start);
+        }
+        return result;
+    }
+}
@@ -16,6 +16,7 @@
 package io.kojan.dola.gleaner;
 
 import java.util.List;
+import java.util.Optional;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -53,6 +54,31 @@ public class DolaGleanerBuildPluginManager implements BuildPluginManager {
 
     @Inject private Collector collector;
 
+    @Inject private MojoDescriptorCache mojoDescriptorCache;
+
+    @Inject private PluginIndex pluginIndex;
+
+    @Inject private Metrics metrics;
+
+    private Optional<MojoDescriptor> loadMojoDescriptor(
+            Plugin plugin,
+            String goal,
+            List<RemoteRepository> repositories,
+            RepositorySystemSession session) {
+        MojoDescriptor indexed = pluginIndex.get(plugin, goal, repositories, session);
+        if (indexed != null) {
+            return Optional.of(indexed);
+        }
+        try {
+            MojoDescriptor mojo =
+                    mavenPluginManager.getMojoDescriptor(plugin, goal, repositories, session);
+            pluginIndex.put(plugin, mojo);
+            return Optional.of(mojo);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
     @Override
     public MojoDescriptor getMojoDescriptor(
             Plugin plugin,
@@ -65,6 +91,7 @@ public class DolaGleanerBuildPluginManager implements BuildPluginManager {
                     MojoNotFoundException,
                     InvalidPluginDescriptorException {
 
+        long start = metrics.start();
         Dep dep =
                 collector.lookup(
                         plugin.getGroupId(),
@@ -72,28 +99,35 @@ public class DolaGleanerBuildPluginManager implements BuildPluginManager {
                         "jar",
                         "",
                         plugin.getVersion());
-        try {
-            MojoDescriptor mojo =
-                    mavenPluginManager.getMojoDescriptor(plugin, goal, repositories, session);
+        Optional<MojoDescriptor> cached =
+                mojoDescriptorCache.get(
+                        plugin,
+                        goal,
+                        repositories,
+                        () -> loadMojoDescriptor(plugin, goal, repositories, session));
+        metrics.record("mojoDescriptor", plugin.getId() + ':' + goal, start);
+        if (cached.isPresent()) {
             dep.resolved = true;
-            return mojo;
-        } catch (Exception e) {
-            dep.resolved = false;
+            return cached.get();
+        }
+        dep.resolved = false;
 
-            PluginDescriptor pd = new PluginDescriptor();
-            pd.setGroupId(plugin.getGroupId());
-            pd.setArtifactId(plugin.getArtifactId());
-            pd.setVersion(plugin.getVersion());
-            pd.setPlugin(plugin);
+        Events.Stub event = new Events.Stub();
+        event.begin();
+        PluginDescriptor pd = new PluginDescriptor();
+        pd.setGroupId(plugin.getGroupId());
+        pd.setArtifactId(plugin.getArtifactId());
+        pd.setVersion(plugin.getVersion());
+        pd.setPlugin(plugin);
 
-            MojoDescriptor md = new MojoDescriptor();
-            md.setGoal(goal);
-            md.setPluginDescriptor(pd);
-            md.setPhase("validate");
+        MojoDescriptor md = new MojoDescriptor();
+        md.setGoal(goal);
+        md.setPluginDescriptor(pd);
+        md.setPhase("validate");
+        event.complete("mojo", plugin.getId() + ':' + goal, "stubbed");
 
-            logger.debug("Stubbed plugin {} goal {}", plugin.getArtifactId(), goal);
-            return md;
-        }
+        logger.debug("Stubbed plugin {} goal {}", plugin.getArtifactId(), goal);
+        return md;
     }
 
     @Override
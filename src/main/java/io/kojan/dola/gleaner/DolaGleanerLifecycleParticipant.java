@@ -0,0 +1,58 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Resets per-build state when a new session starts, before any project models are built. Caches
+ * that stay valid across builds are kept, which lets a long-running JVM process many builds.
+ */
+@Named
+@Singleton
+public class DolaGleanerLifecycleParticipant extends AbstractMavenLifecycleParticipant {
+
+    @Inject private Configuration configuration;
+
+    @Inject private Collector collector;
+
+    @Inject private MojoDescriptorCache mojoDescriptorCache;
+
+    @Inject private ResolutionEngine resolutionEngine;
+
+    @Inject private Metrics metrics;
+
+    @Inject private DolaGleanerModelResolver modelResolver;
+
+    @Inject private DependencyGraphs dependencyGraphs;
+
+    @Override
+    public void afterSessionStart(MavenSession session) {
+        configuration.load(session);
+        collector.reset();
+        mojoDescriptorCache.removeFailures();
+        resolutionEngine.resetCounters();
+        metrics.reset();
+        FileModelSource.clearCache();
+        StubModelSource.clearCache();
+        modelResolver.clearCache();
+        dependencyGraphs.clearCache();
+    }
+}
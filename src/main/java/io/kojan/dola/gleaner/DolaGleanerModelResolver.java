@@ -17,25 +17,35 @@ package io.kojan.dola.gleaner;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.apache.maven.api.ArtifactCoordinates;
-import org.apache.maven.api.DownloadedArtifact;
 import org.apache.maven.api.RemoteRepository;
 import org.apache.maven.api.Session;
 import org.apache.maven.api.model.Dependency;
 import org.apache.maven.api.model.Parent;
-import org.apache.maven.api.services.ArtifactResolverException;
 import org.apache.maven.api.services.ModelSource;
-import org.apache.maven.api.services.VersionRangeResolverException;
 import org.apache.maven.api.services.model.ModelResolver;
 import org.apache.maven.api.services.model.ModelResolverException;
 import org.eclipse.sisu.Priority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Model resolver that serves stub POMs for missing parents and imported dependencies.
+ *
+ * <p>Results, both found and stubbed, are memoized for the duration of a session, so that every
+ * POM is resolved once even though Maven asks for the same parent or import many times, possibly
+ * concurrently. Concurrent requests for the same POM wait for a single resolution. The POM is
+ * looked up in the {@link Collector} on every request, so that it is collected again after the
+ * collector is restored, as done for each variant in matrix mode.
+ */
 @Named
 @Singleton
 @Priority(100)
@@ -45,6 +55,45 @@ public class DolaGleanerModelResolver implements ModelResolver {
 
     @Inject private Collector collector;
 
+    @Inject private ResolutionEngine resolutionEngine;
+
+    @Inject private Metrics metrics;
+
+    private final ConcurrentMap<String, CompletableFuture<ModelSource>> models =
+            new ConcurrentHashMap<>();
+
+    /** Forgets memoized results. Called when a session starts. */
+    void clearCache() {
+        models.clear();
+    }
+
+    private ModelSource memoize(String key, Supplier<ModelSource> loader) {
+        CompletableFuture<ModelSource> future = models.get(key);
+        if (future == null) {
+            CompletableFuture<ModelSource> ours = new CompletableFuture<>();
+            future = models.putIfAbsent(key, ours);
+            if (future == null) {
+                try {
+                    ModelSource result = loader.get();
+                    ours.complete(result);
+                    return result;
+                } catch (RuntimeException e) {
+                    models.remove(key, ours);
+                    ours.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        return future.join();
+    }
+
+    private ModelSource stub(String groupId, String artifactId, String version, String packaging) {
+        long start = metrics.start();
+        ModelSource stub = new StubModelSource(groupId, artifactId, version, packaging);
+        metrics.record("stubModel", groupId + ':' + artifactId + ':' + version, start);
+        return stub;
+    }
+
     @Override
     public ModelSource resolveModel(
             Session session,
@@ -52,33 +101,41 @@ public class DolaGleanerModelResolver implements ModelResolver {
             Parent parent,
             AtomicReference<Parent> modified)
             throws ModelResolverException {
-        ModelSource ms = tryResolveParent(session, repositories, parent);
-        if (ms != null) {
-            return ms;
-        }
-        logger.debug("Stubbed parent POM {}", parent.getArtifactId());
-        return new StubModelSource(
-                parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), "pom");
+        String key =
+                "parent:"
+                        + parent.getGroupId()
+                        + ':'
+                        + parent.getArtifactId()
+                        + ':'
+                        + parent.getVersion();
+        ArtifactCoordinates coords =
+                session.createArtifactCoordinates(
+                        parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), "pom");
+        collector.lookup(coords);
+        return memoize(
+                key,
+                () -> {
+                    ModelSource ms = tryResolveParent(session, repositories, coords);
+                    if (ms != null) {
+                        return ms;
+                    }
+                    logger.debug("Stubbed parent POM {}", parent.getArtifactId());
+                    return stub(
+                            parent.getGroupId(),
+                            parent.getArtifactId(),
+                            parent.getVersion(),
+                            "pom");
+                });
     }
 
     private ModelSource tryResolveParent(
-            Session session, List<RemoteRepository> repositories, Parent parent)
-            throws ModelResolverException {
-        String groupId = parent.getGroupId();
-        String artifactId = parent.getArtifactId();
-        String version = parent.getVersion();
-        ArtifactCoordinates coords =
-                session.createArtifactCoordinates(groupId, artifactId, version, "pom");
-        collector.lookup(coords);
-        try {
-            Gleaner.checkVersionRange(coords);
-            DownloadedArtifact resolved = session.resolveArtifact(coords, repositories);
-            Path path = resolved.getPath();
-            logger.debug("Parent POM found at {}", path);
-            return new FileModelSource(path);
-        } catch (VersionRangeResolverException | ArtifactResolverException e) {
+            Session session, List<RemoteRepository> repositories, ArtifactCoordinates coords) {
+        Path path = resolutionEngine.tryResolve(session, coords, repositories);
+        if (path == null) {
             return null;
         }
+        logger.debug("Parent POM found at {}", path);
+        return FileModelSource.of(path);
     }
 
     @Override
@@ -88,41 +145,55 @@ public class DolaGleanerModelResolver implements ModelResolver {
             Dependency dependency,
             AtomicReference<Dependency> modified)
             throws ModelResolverException {
-        ModelSource ms = tryResolveDependency(session, repositories, dependency);
-        if (ms != null) {
-            return ms;
-        }
-        logger.warn("Stubbed dependency POM {}", dependency.getArtifactId());
-        return new StubModelSource(
-                dependency.getGroupId(),
-                dependency.getArtifactId(),
-                dependency.getVersion(),
-                dependency.getType());
-    }
-
-    private ModelSource tryResolveDependency(
-            Session session, List<RemoteRepository> repositories, Dependency dependency)
-            throws ModelResolverException {
-        String groupId = dependency.getGroupId();
-        String artifactId = dependency.getArtifactId();
-        String classifier = dependency.getClassifier();
-        String version = dependency.getVersion();
-        String type = dependency.getType();
+        String key =
+                "dependency:"
+                        + dependency.getGroupId()
+                        + ':'
+                        + dependency.getArtifactId()
+                        + ':'
+                        + dependency.getVersion()
+                        + ':'
+                        + dependency.getClassifier()
+                        + ':'
+                        + dependency.getType();
         ArtifactCoordinates coords =
                 session.createArtifactCoordinates(
-                        groupId, artifactId, version, classifier, null, type);
+                        dependency.getGroupId(),
+                        dependency.getArtifactId(),
+                        dependency.getVersion(),
+                        dependency.getClassifier(),
+                        null,
+                        dependency.getType());
         Dep dep = collector.lookup(coords);
-        try {
-            Gleaner.checkVersionRange(coords);
-            DownloadedArtifact resolved = session.resolveArtifact(coords, repositories);
-            Path path = resolved.getPath();
-            logger.debug("Dependency POM found at {}", path);
-            dep.resolved = true;
-            return new FileModelSource(path);
-        } catch (VersionRangeResolverException | ArtifactResolverException e) {
+        return memoize(
+                key,
+                () -> {
+                    ModelSource ms = tryResolveDependency(session, repositories, coords, dep);
+                    if (ms != null) {
+                        return ms;
+                    }
+                    logger.warn("Stubbed dependency POM {}", dependency.getArtifactId());
+                    return stub(
+                            dependency.getGroupId(),
+                            dependency.getArtifactId(),
+                            dependency.getVersion(),
+                            dependency.getType());
+                });
+    }
+
+    private ModelSource tryResolveDependency(
+            Session session,
+            List<RemoteRepository> repositories,
+            ArtifactCoordinates coords,
+            Dep dep) {
+        Path path = resolutionEngine.tryResolve(session, coords, repositories);
+        if (path == null) {
             dep.resolved = false;
             return null;
         }
+        logger.debug("Dependency POM found at {}", path);
+        dep.resolved = true;
+        return FileModelSource.of(path);
     }
 
     @Override
@@ -0,0 +1,159 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by Gleaner, shown in the "Dola Gleaner" category. Fields
+ * are filled in only when an event is going to be committed, so events cost next to nothing
+ * unless they are enabled in the recording.
+ *
+ * <p>The module an operation is done on behalf of is tracked per thread with {@link
+ * #setModule}.
+ */
+final class Events {
+
+    private static final ThreadLocal<String> module = new ThreadLocal<>();
+
+    private Events() {}
+
+    /** Sets module that operations of the current thread are done for, or clears it. */
+    static void setModule(String id) {
+        if (id != null) {
+            module.set(id);
+        } else {
+            module.remove();
+        }
+    }
+
+    @Name("io.kojan.dola.gleaner.ArtifactResolution")
+    @Label("Artifact Resolution")
+    @Description("Lookup of an artifact in the resolution cache or through Maven resolver")
+    @Category("Dola Gleaner")
+    @StackTrace(false)
+    static final class Resolution extends Event {
+        @Label("Coordinates")
+        String coordinates;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Label("Module")
+        String module;
+
+        void complete(Object coordinates, String outcome) {
+            end();
+            if (shouldCommit()) {
+                this.coordinates = String.valueOf(coordinates);
+                this.outcome = outcome;
+                this.module = Events.module.get();
+                commit();
+            }
+        }
+    }
+
+    @Name("io.kojan.dola.gleaner.Stub")
+    @Label("Stub Creation")
+    @Description("Creation of a stub POM or MOJO descriptor for a missing artifact")
+    @Category("Dola Gleaner")
+    @StackTrace(false)
+    static final class Stub extends Event {
+        @Label("Kind")
+        String kind;
+
+        @Label("Coordinates")
+        String coordinates;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Label("Module")
+        String module;
+
+        void complete(String kind, Object coordinates, String outcome) {
+            end();
+            if (shouldCommit()) {
+                this.kind = kind;
+                this.coordinates = String.valueOf(coordinates);
+                this.outcome = outcome;
+                this.module = Events.module.get();
+                commit();
+            }
+        }
+    }
+
+    @Name("io.kojan.dola.gleaner.ExecutionPlan")
+    @Label("Execution Plan")
+    @Description("Calculation of the execution plan of a project")
+    @Category("Dola Gleaner")
+    @StackTrace(false)
+    static final class Plan extends Event {
+        @Label("Module")
+        String module;
+
+        @Label("Setup")
+        boolean setup;
+
+        @Label("Outcome")
+        String outcome;
+
+        void complete(String module, boolean setup, String outcome) {
+            end();
+            if (shouldCommit()) {
+                this.module = module;
+                this.setup = setup;
+                this.outcome = outcome;
+                commit();
+            }
+        }
+    }
+
+    @Name("io.kojan.dola.gleaner.ResolveDeps")
+    @Label("Dependency Resolution Pass")
+    @Description("Resolution of pending dependencies at the end of a phase")
+    @Category("Dola Gleaner")
+    @StackTrace(false)
+    static final class ResolveDeps extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Pending")
+        int pending;
+
+        @Label("Unresolved")
+        int unresolved;
+
+        @Label("Outcome")
+        String outcome;
+
+        void complete(String phase, int pending, int unresolved) {
+            end();
+            if (shouldCommit()) {
+                this.phase = phase;
+                this.pending = pending;
+                this.unresolved = unresolved;
+                this.outcome = unresolved == 0 ? "complete" : "incomplete";
+                commit();
+            }
+        }
+    }
+}
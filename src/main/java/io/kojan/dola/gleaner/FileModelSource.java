@@ -15,21 +15,41 @@
  */
 package io.kojan.dola.gleaner;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.maven.api.services.ModelSource;
 import org.apache.maven.api.services.Source;
 
+/**
+ * Model source backed by an external POM file. Instances are shared per path, and the file is read
+ * only once; its content is kept in memory and served to all readers. Sources compare equal by
+ * path, which lets Maven reuse the models it has already parsed from the same source.
+ */
 class FileModelSource implements ModelSource {
 
+    private static final Map<Path, FileModelSource> cache = new ConcurrentHashMap<>();
+
     private final Path modelPath;
+    private volatile byte[] content;
 
-    public FileModelSource(Path modelPath) {
+    private FileModelSource(Path modelPath) {
         this.modelPath = modelPath;
     }
 
+    static FileModelSource of(Path modelPath) {
+        return cache.computeIfAbsent(modelPath, FileModelSource::new);
+    }
+
+    /** Drops all cached sources, as files may have changed since they were read. */
+    static void clearCache() {
+        cache.clear();
+    }
+
     @Override
     public Path getPath() {
         return modelPath;
@@ -37,7 +57,12 @@ class FileModelSource implements ModelSource {
 
     @Override
     public InputStream openStream() throws IOException {
-        return Files.newInputStream(modelPath);
+        byte[] bytes = content;
+        if (bytes == null) {
+            bytes = Files.readAllBytes(modelPath);
+            content = bytes;
+        }
+        return new ByteArrayInputStream(bytes);
     }
 
     @Override
@@ -54,4 +79,17 @@ class FileModelSource implements ModelSource {
     public ModelSource resolve(ModelLocator modelLocator, String relative) {
         throw new IllegalStateException("FMS resolve called");
     }
+
+    @Override
+    public int hashCode() {
+        return modelPath.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null && obj instanceof FileModelSource other) {
+            return modelPath.equals(other.modelPath);
+        }
+        return false;
+    }
 }
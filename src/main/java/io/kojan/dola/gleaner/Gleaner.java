@@ -15,36 +15,47 @@
  */
 package io.kojan.dola.gleaner;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.StringJoiner;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import org.apache.maven.api.ArtifactCoordinates;
-import org.apache.maven.api.DownloadedArtifact;
-import org.apache.maven.api.RemoteRepository;
+import org.apache.maven.api.PathScope;
 import org.apache.maven.api.Session;
 import org.apache.maven.api.model.Dependency;
+import org.apache.maven.api.model.InputLocationTracker;
 import org.apache.maven.api.model.Model;
 import org.apache.maven.api.model.Parent;
 import org.apache.maven.api.model.Plugin;
-import org.apache.maven.api.services.ArtifactResolverException;
-import org.apache.maven.api.services.VersionRangeResolverException;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.lifecycle.LifecycleExecutor;
 import org.apache.maven.lifecycle.MavenExecutionPlan;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,57 +70,98 @@ public class Gleaner {
 
     @Inject private LifecycleExecutor lifecycleExecutor;
 
-    private Map<String, Map<String, Map<String, MavenProject>>> reactorMap;
+    @Inject private ProjectBuilder projectBuilder;
+
+    @Inject private ResolutionEngine resolutionEngine;
+
+    @Inject private MojoDescriptorCache mojoDescriptorCache;
+
+    @Inject private ResolutionCache resolutionCache;
+
+    @Inject private PluginIndex pluginIndex;
+
+    @Inject private Configuration configuration;
+
+    @Inject private Metrics metrics;
+
+    @Inject private DependencyGraphs dependencyGraphs;
+
+    private Map<CoordKey, MavenProject> reactorIndex;
 
     private Set<String> brs = new TreeSet<>();
 
-    private MavenProject lookupReactor(ArtifactCoordinates coords) {
-        String groupId = coords.getGroupId();
-        String artifactId = coords.getArtifactId();
-        String version = coords.getVersionConstraint().getRecommendedVersion().toString();
-        return reactorMap
-                .getOrDefault(groupId, Map.of())
-                .getOrDefault(artifactId, Map.of())
-                .getOrDefault(version, null);
+    /** BuildRequires of dependencies required only transitively, in transitive mode. */
+    private Set<String> transitiveOnlyBrs = new TreeSet<>();
+
+    /** An artifact whose transitive dependencies are collected in transitive mode. */
+    private record TransitiveRoot(Dep dep, PathScope scope) {}
+
+    /** Dependencies whose transitive dependencies could not be collected. */
+    private final Set<Dep> incompleteGraphs = ConcurrentHashMap.newKeySet();
+
+    private MavenProject lookupReactor(String groupId, String artifactId, String version) {
+        return reactorIndex.get(CoordKey.project(groupId, artifactId, version));
     }
 
     private Session session;
 
     private DependencyFilter filter;
     private CompatVersionResolver compatVersionResolver;
+    private int resolveThreads;
+    private int planThreads;
+    private Report report;
+    private boolean continueOnMissing;
+    private boolean pipeline;
+    private boolean transitive;
+    private String missingStatus;
 
-    static void checkVersionRange(ArtifactCoordinates coords) {
-        if (coords.getVersionConstraint().getVersionRange() != null) {
-            throw new RuntimeException("Version ranges are not supported: " + coords);
-        }
-    }
+    private long phaseStart;
+    private long phaseResolverCalls;
 
-    private Path tryResolve(Session session, ArtifactCoordinates coords) {
-        try {
-            List<RemoteRepository> repositories = session.getRemoteRepositories();
-            checkVersionRange(coords);
-            DownloadedArtifact resolved = session.resolveArtifact(coords, repositories);
-            logger.debug("Dependency found at {}", resolved.getPath());
-            return resolved.getPath();
-        } catch (VersionRangeResolverException | ArtifactResolverException e) {
-            return null;
+    private IncrementalState incrementalState;
+    private Map<MavenProject, IncrementalState.Module> analyzedModules = Map.of();
+
+    /** Name of the variant being analyzed, or {@code null} when matrix mode is not used. */
+    private String variant;
+
+    /** Name of the goal set being analyzed, or {@code null} when goal sets are not used. */
+    private String goalSet;
+
+    /** Returns names of the current variant and goal set joined with given separator. */
+    private String label(String separator) {
+        StringJoiner label = new StringJoiner(separator);
+        if (variant != null) {
+            label.add(variant);
+        }
+        if (goalSet != null) {
+            label.add(goalSet);
         }
+        return label.toString();
     }
 
-    private void processParent(Parent parent) {
-        ArtifactCoordinates coords =
-                session.createArtifactCoordinates(
-                        parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), "pom");
-        MavenProject reactorProject = lookupReactor(coords);
+    private void processParent(Parent parent, IncrementalState.Module module) {
+        MavenProject reactorProject =
+                lookupReactor(parent.getGroupId(), parent.getArtifactId(), parent.getVersion());
         if (reactorProject != null) {
             logger.debug("    --> reactor: {}", reactorProject.getArtifactId());
             return;
         }
-        Dep dep = collector.lookup(coords);
-        dep.foundAt(parent);
+        ArtifactCoordinates coords =
+                session.createArtifactCoordinates(
+                        parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), "pom");
+        declare(coords, parent, module);
     }
 
-    private void processDependency(Dependency dependency) {
+    private Dep processDependency(Dependency dependency, IncrementalState.Module module) {
+        MavenProject reactorProject =
+                lookupReactor(
+                        dependency.getGroupId(),
+                        dependency.getArtifactId(),
+                        dependency.getVersion());
+        if (reactorProject != null) {
+            logger.debug("    --> reactor: {}", reactorProject.getArtifactId());
+            return null;
+        }
         ArtifactCoordinates coords =
                 session.createArtifactCoordinates(
                         dependency.getGroupId(),
@@ -118,16 +170,16 @@ public class Gleaner {
                         dependency.getClassifier(),
                         null,
                         dependency.getType());
-        MavenProject reactorProject = lookupReactor(coords);
+        return declare(coords, dependency, module);
+    }
+
+    private Dep processPlugin(Plugin plugin, IncrementalState.Module module) {
+        MavenProject reactorProject =
+                lookupReactor(plugin.getGroupId(), plugin.getArtifactId(), plugin.getVersion());
         if (reactorProject != null) {
             logger.debug("    --> reactor: {}", reactorProject.getArtifactId());
-            return;
+            return null;
         }
-        Dep dep = collector.lookup(coords);
-        dep.foundAt(dependency);
-    }
-
-    private void processPlugin(Plugin plugin) {
         ArtifactCoordinates coords =
                 session.createArtifactCoordinates(
                         plugin.getGroupId(),
@@ -136,64 +188,178 @@ public class Gleaner {
                         null,
                         null,
                         "maven-plugin");
-        MavenProject reactorProject = lookupReactor(coords);
-        if (reactorProject != null) {
-            logger.debug("    --> reactor: {}", reactorProject.getArtifactId());
-            return;
-        }
+        return declare(coords, plugin, module);
+    }
+
+    /**
+     * Looks up a dependency declared at given location. In incremental mode, the declaration is
+     * recorded as a contribution of given module, which is {@code null} otherwise.
+     */
+    private Dep declare(
+            ArtifactCoordinates coords,
+            InputLocationTracker tracker,
+            IncrementalState.Module module) {
         Dep dep = collector.lookup(coords);
-        dep.foundAt(plugin);
+        long location = dep.foundAt(tracker);
+        if (module != null) {
+            module.lookups.add(dep);
+            module.exec.add(
+                    contribution(
+                            dep,
+                            true,
+                            collector.sources().url(location),
+                            SourceTable.line(location)));
+        }
+        return dep;
+    }
+
+    private static IncrementalState.Contribution contribution(
+            Dep dep, boolean declared, String url, int line) {
+        return new IncrementalState.Contribution(
+                dep.groupId,
+                dep.artifactId,
+                dep.extension,
+                dep.classifier,
+                dep.requestedVersion,
+                declared,
+                url,
+                line);
     }
 
-    private void addDep(Dep dep) {
+    /** Replays contributions of a module whose analysis is reused from the incremental state. */
+    private void replay(Collection<IncrementalState.Contribution> contributions) {
+        for (IncrementalState.Contribution c : contributions) {
+            ArtifactCoordinates coords =
+                    session.createArtifactCoordinates(
+                            c.groupId(),
+                            c.artifactId(),
+                            c.version(),
+                            c.classifier(),
+                            c.extension(),
+                            null);
+            Dep dep = collector.lookup(coords);
+            if (c.declared()) {
+                dep.foundAt(collector.sources().location(c.url(), c.line()));
+            }
+        }
+    }
+
+    /**
+     * Adds given dependency to BuildRequires, unless it is filtered.
+     *
+     * @return the added BuildRequires, or {@code null}
+     */
+    private String addDep(Dep dep) {
         if (filter.isDependencyFiltered(dep)) {
             logger.warn("Dependency {} is filtered", dep.id);
-            return;
+            return null;
         }
         String version = compatVersionResolver.resolveVersionFor(dep);
         if (!version.equals("SYSTEM")) {
             logger.info("Using compat version {} for {}", version, dep.id);
         }
         dep.resolvedVersion = version;
-        brs.add(dep.rpmDepString());
+        String br = dep.rpmDepString();
+        brs.add(br);
+        return br;
+    }
+
+    private boolean resolveDeps(String phase) {
+        List<Dep> deps = collector.sortedDeps();
+        List<Dep> pending = deps.stream().filter(dep -> dep.resolved == null).toList();
+        Events.ResolveDeps event = new Events.ResolveDeps();
+        event.begin();
+        long start = metrics.start();
+        resolutionEngine.resolveAll(session, pending, resolveThreads);
+        metrics.record("resolveDeps", phase, start);
+        endPhase(phase);
+        int unresolved = (int) deps.stream().filter(dep -> !dep.resolved).count();
+        event.complete(phase, pending.size(), unresolved);
+        for (Dep dep : deps) {
+            if (dep.phase == null) {
+                dep.phase = phase;
+            }
+        }
+        boolean ok = evaluate(phase, deps, Dep::isStrong);
+        return checkTransitiveClosures(phase) && ok;
     }
 
-    private boolean resolveDeps() {
+    /**
+     * Logs dependencies whose transitive closure could not be collected, which fails the exec
+     * phase. The dependencies themselves keep their resolution state.
+     *
+     * @return {@code true} unless given phase is the exec phase and some closure is incomplete
+     */
+    private boolean checkTransitiveClosures(String phase) {
+        if (!phase.equals("exec")) {
+            return true;
+        }
+        for (Dep dep : incompleteGraphs) {
+            logger.error("Transitive closure incomplete for {}", dep.id);
+        }
+        return incompleteGraphs.isEmpty();
+    }
+
+    /**
+     * Reports and logs state of given dependencies at the end of given phase, and adds strong
+     * dependencies to BuildRequires, as well as weak ones if they are all that is missing. In
+     * transitive mode, dependencies required transitively are added like strong ones.
+     *
+     * @param isStrong tells whether a dependency was declared by the end of the phase
+     * @return {@code true} if all dependencies are resolved
+     */
+    private boolean evaluate(String phase, List<Dep> deps, Predicate<Dep> isStrong) {
         brs.clear();
-        List<Dep> unresolved = new ArrayList<>();
-        for (Dep dep : collector.deps.values()) {
-            if (dep.resolved == null) {
-                ArtifactCoordinates coords = dep.coords;
-                logger.debug("Resolving dep {}", coords);
-                Path path = tryResolve(session, coords);
-                if (path != null) {
-                    dep.resolved = true;
-                    logger.debug("Dependency {} found at {}", coords, path);
-                } else {
-                    dep.resolved = false;
-                    unresolved.add(dep);
-                    logger.debug("Dependency {} ABSENT", coords);
-                }
-            } else if (!dep.resolved) {
-                unresolved.add(dep);
+        transitiveOnlyBrs.clear();
+        List<Dep> unresolved = deps.stream().filter(dep -> !dep.resolved).toList();
+        List<Dep> strong = deps.stream().filter(isStrong).toList();
+        List<Dep> transitiveOnly =
+                deps.stream().filter(dep -> dep.transitive && !isStrong.test(dep)).toList();
+        if (report != null) {
+            for (Dep dep : deps) {
+                report.dependency(
+                        phase,
+                        dep,
+                        isStrong.test(dep),
+                        dep.transitive,
+                        filter.isDependencyFiltered(dep),
+                        compatVersionResolver.resolveVersionFor(dep));
             }
+            report.flush();
         }
-        List<Dep> strong =
-                collector.deps.values().stream()
-                        .filter(dep -> !dep.foundLocations.isEmpty())
-                        .toList();
         boolean unresolvedStrong = false;
+        Set<String> direct = new HashSet<>();
         for (Dep dep : strong) {
             if (dep.resolved) {
                 logger.info("Strong dependency: {}", dep.id);
             } else {
                 unresolvedStrong = true;
-                logger.error("Unresolved strong dependency: {}", dep.id);
+                logger.error(
+                        "Unresolved strong dependency: {} (discovered in {} phase)",
+                        dep.id,
+                        dep.phase);
+            }
+            if (logger.isInfoEnabled()) {
+                for (String location : dep.foundLocations()) {
+                    logger.info("  declared at {}", location);
+                }
+            }
+            direct.add(addDep(dep));
+        }
+        for (Dep dep : transitiveOnly) {
+            if (dep.resolved) {
+                logger.info("Transitive dependency: {}", dep.id);
+            } else {
+                unresolvedStrong = true;
+                logger.error(
+                        "Unresolved transitive dependency: {} (discovered in {} phase)",
+                        dep.id,
+                        dep.phase);
             }
-            for (String location : dep.foundLocations) {
-                logger.info("  declared at {}", location);
+            String br = addDep(dep);
+            if (br != null && !direct.contains(br)) {
+                transitiveOnlyBrs.add(br);
             }
-            addDep(dep);
         }
         if (unresolved.isEmpty()) {
             return true;
@@ -203,13 +369,53 @@ public class Gleaner {
         }
         for (Dep dep : unresolved) {
             if (!dep.resolved) {
-                logger.error("Unresolved weak dependency: {}", dep.id);
-                addDep(dep);
+                logger.error(
+                        "Unresolved weak dependency: {} (discovered in {} phase)",
+                        dep.id,
+                        dep.phase);
+                String br = addDep(dep);
+                if (br != null) {
+                    transitiveOnlyBrs.remove(br);
+                }
             }
         }
         return false;
     }
 
+    /**
+     * Records that given phase ended with missing dependencies. Unless {@code
+     * dola.gleaner.continueOnMissing} is set, {@code true} is returned to stop processing and
+     * output the result. Otherwise processing continues with stubbed POMs and MOJO descriptors,
+     * and the status of the first failed phase is output at the end.
+     */
+    private boolean stopOnMissing(String phase) {
+        logger.error("Missing {} dependencies", phase);
+        if (missingStatus == null) {
+            missingStatus = "missing-" + phase + "-dependencies";
+        }
+        if (continueOnMissing) {
+            logger.warn("Continuing despite missing {} dependencies", phase);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Logs and reports wall time and number of resolver calls of a phase, which lasts since the
+     * previous phase ended.
+     */
+    private void endPhase(String phase) {
+        long now = System.nanoTime();
+        long millis = (now - phaseStart) / 1_000_000;
+        long resolverCalls = resolutionEngine.getResolverCalls() - phaseResolverCalls;
+        logger.debug("Phase {} took {} ms, {} resolver calls", phase, millis, resolverCalls);
+        if (report != null) {
+            report.phase(phase, millis, resolverCalls);
+        }
+        phaseStart = now;
+        phaseResolverCalls += resolverCalls;
+    }
+
     private Set<String> mapPluginDepScope(String scope) {
         if (scope == null) {
             return Set.of();
@@ -237,15 +443,32 @@ public class Gleaner {
         };
     }
 
-    private void output() {
+    /**
+     * Outputs BuildRequires with given status. Output of a variant or goal set is preceded by a
+     * line naming it, and written to the output file suffixed with that name.
+     */
+    private void output(String status) {
+        String label = label(" ");
+        if (!label.isEmpty()) {
+            logger.info("BuildRequires for {}", label);
+        }
         logger.info(
                 "BEGIN MAVEN BUILD DEPENDENCIES"
                         + brs.stream()
                                 .map(br -> "\nBuildRequires:  " + br)
                                 .collect(Collectors.joining()));
         logger.info("END MAVEN BUILD DEPENDENCIES");
-        String outFileProp = System.getProperty("dola.gleaner.outputFile");
+        if (transitive) {
+            logger.info(
+                    "BuildRequires required only transitively{}: {}",
+                    label.isEmpty() ? "" : " for " + label,
+                    transitiveOnlyBrs);
+        }
+        String outFileProp = configuration.get("dola.gleaner.outputFile");
         if (outFileProp != null) {
+            if (!label.isEmpty()) {
+                outFileProp += "." + label(".").replaceAll("[^A-Za-z0-9+._-]", "_");
+            }
             Path path = Path.of(outFileProp);
             try (Writer w = Files.newBufferedWriter(path)) {
                 for (String br : brs) {
@@ -256,115 +479,614 @@ public class Gleaner {
                 logger.error("I/O exception when writing output file " + path, e);
             }
         }
+        if (report != null) {
+            report.result(status, brs, transitive ? transitiveOnlyBrs : null);
+            report.flush();
+        }
+    }
+
+    /**
+     * Calculates execution plans of given reactor projects, returned in the same order. When
+     * more than one plan thread is configured, each project is planned concurrently on its own
+     * clone of the session, so that the current project of the shared session is not mutated.
+     */
+    private List<MavenExecutionPlan> calculateExecutionPlans(
+            MavenSession mavenSession,
+            List<String> goals,
+            List<MavenProject> projects,
+            boolean setup) {
+        return Parallel.map(
+                projects,
+                planThreads,
+                project -> calculateExecutionPlan(mavenSession, goals, project, setup));
+    }
+
+    /**
+     * Calculates execution plan of given reactor project. In incremental mode, dependencies
+     * looked up while planning are recorded for the project.
+     */
+    private MavenExecutionPlan calculateExecutionPlan(
+            MavenSession mavenSession, List<String> goals, MavenProject project, boolean setup)
+            throws Exception {
+        MavenSession projectSession = planThreads > 1 ? mavenSession.clone() : mavenSession;
+        projectSession.setCurrentProject(project);
+        IncrementalState.Module module = analyzedModules.get(project);
+        Set<Dep> lookedUp = new LinkedHashSet<>();
+        Set<Dep> outer = module != null ? collector.startRecording(lookedUp) : null;
+        Events.setModule(project.getId());
+        Events.Plan event = new Events.Plan();
+        event.begin();
+        String outcome = "failed";
+        long start = metrics.start();
+        try {
+            MavenExecutionPlan plan =
+                    lifecycleExecutor.calculateExecutionPlan(
+                            projectSession, setup, goals.toArray(new String[0]));
+            outcome = "ok";
+            return plan;
+        } finally {
+            event.complete(project.getId(), setup, outcome);
+            Events.setModule(null);
+            metrics.record(
+                    setup ? "executionPlanSetup" : "executionPlan", project.getId(), start);
+            if (module != null) {
+                collector.stopRecording(outer);
+                module.lookups.addAll(lookedUp);
+                for (Dep dep : lookedUp) {
+                    module.plan.add(contribution(dep, false, null, 0));
+                }
+            }
+        }
     }
 
     public void execute(MavenSession mavenSession) {
+        try {
+            run(mavenSession);
+        } finally {
+            if (report != null) {
+                report.close();
+                report = null;
+            }
+            resolutionCache.flush();
+            pluginIndex.flush();
+            metrics.write();
+        }
+    }
+
+    private void run(MavenSession mavenSession) {
+
+        filter = DependencyFilter.parseFromProperties(configuration.getProperties());
+        compatVersionResolver =
+                CompatVersionResolver.parseFromProperties(configuration.getProperties());
+        resolveThreads = configuration.getInt("dola.gleaner.resolveThreads", 1);
+        planThreads = configuration.getInt("dola.gleaner.planThreads", 1);
+        continueOnMissing =
+                Boolean.parseBoolean(configuration.get("dola.gleaner.continueOnMissing"));
+        pipeline = Boolean.parseBoolean(configuration.get("dola.gleaner.pipeline"));
+        transitive = Boolean.parseBoolean(configuration.get("dola.gleaner.transitive"));
+        missingStatus = null;
+        brs.clear();
+        String reportFile = configuration.get("dola.gleaner.reportFile");
+        if (reportFile != null) {
+            report = new Report(Path.of(reportFile));
+        }
+        // Time since the session started, mostly spent building project models, is reported too
+        long sinceStart =
+                System.currentTimeMillis() - mavenSession.getRequest().getStartTime().getTime();
+        phaseStart = System.nanoTime() - sinceStart * 1_000_000;
+        phaseResolverCalls = 0;
+        endPhase("projects");
 
-        filter = DependencyFilter.parseFromProperties(System.getProperties());
-        compatVersionResolver = CompatVersionResolver.parseFromProperties(System.getProperties());
+        String stateFile = configuration.get("dola.gleaner.incrementalState");
+        incrementalState = stateFile != null ? new IncrementalState(Path.of(stateFile)) : null;
+        analyzedModules = Map.of();
+        variant = null;
+        goalSet = null;
 
         session = mavenSession.getSession();
 
+        List<Variant> variants = Variant.parseMatrix(configuration.get("dola.gleaner.matrix"));
+        if (variants.isEmpty()) {
+            analyzeProjects(mavenSession);
+            return;
+        }
+        for (Variant v : variants) {
+            variant = v.name();
+            logger.info("Evaluating variant {}", variant);
+            if (report != null) {
+                report.setVariant(variant);
+            }
+            collector.restore(Map.of());
+            missingStatus = null;
+            MavenSession variantSession = buildProjects(mavenSession, v);
+            endPhase("projects");
+            analyzeProjects(variantSession);
+        }
+        variant = null;
+        if (report != null) {
+            report.setVariant(null);
+        }
+    }
+
+    /**
+     * Builds models of all reactor projects again, with profiles and user properties of given
+     * variant applied on top of those of the build. Caches of Gleaner, as well as filtering and
+     * compat version rules, are shared with other variants.
+     *
+     * @return clone of given session with rebuilt projects
+     */
+    private MavenSession buildProjects(MavenSession mavenSession, Variant variant) {
+        ProjectBuildingRequest request =
+                new DefaultProjectBuildingRequest(mavenSession.getProjectBuildingRequest());
+        List<String> activeProfiles = new ArrayList<>(request.getActiveProfileIds());
+        activeProfiles.removeAll(variant.inactiveProfiles());
+        activeProfiles.addAll(variant.activeProfiles());
+        request.setActiveProfileIds(activeProfiles);
+        List<String> inactiveProfiles = new ArrayList<>(request.getInactiveProfileIds());
+        inactiveProfiles.removeAll(variant.activeProfiles());
+        inactiveProfiles.addAll(variant.inactiveProfiles());
+        request.setInactiveProfileIds(inactiveProfiles);
+        Properties userProperties = new Properties();
+        userProperties.putAll(request.getUserProperties());
+        userProperties.putAll(variant.userProperties());
+        request.setUserProperties(userProperties);
+        File pom = mavenSession.getRequest().getPom();
+        Map<String, MavenProject> built = new HashMap<>();
+        try {
+            for (ProjectBuildingResult result : projectBuilder.build(List.of(pom), true, request)) {
+                built.put(result.getProject().getId(), result.getProject());
+            }
+        } catch (ProjectBuildingException e) {
+            throw new RuntimeException(e);
+        }
+        List<MavenProject> allProjects = select(mavenSession.getAllProjects(), built);
+        logger.info(
+                "Built {} projects of variant {}, {} of them in the reactor",
+                built.size(),
+                variant.name(),
+                allProjects.size());
+        MavenSession variantSession = mavenSession.clone();
+        variantSession.setAllProjects(allProjects);
+        variantSession.setProjects(select(mavenSession.getProjects(), built));
+        return variantSession;
+    }
+
+    /**
+     * Returns rebuilt counterparts of given projects, in the same order, so that a variant covers
+     * the same projects as the build, which may have been selected on the command line, in reactor
+     * order. Projects not built in the variant are left out.
+     */
+    static List<MavenProject> select(
+            List<MavenProject> projects, Map<String, MavenProject> built) {
+        List<MavenProject> selected = new ArrayList<>();
+        for (MavenProject project : projects) {
+            MavenProject rebuilt = built.get(project.getId());
+            if (rebuilt != null) {
+                selected.add(rebuilt);
+            }
+        }
+        return selected;
+    }
+
+    /** Analyzes reactor projects of given session, starting from their parents. */
+    private void analyzeProjects(MavenSession mavenSession) {
         List<MavenProject> allProjects = mavenSession.getAllProjects();
-        reactorMap = new LinkedHashMap<>();
-        allProjects.forEach(
-                project ->
-                        reactorMap
-                                .computeIfAbsent(project.getGroupId(), k -> new LinkedHashMap<>())
-                                .computeIfAbsent(
-                                        project.getArtifactId(), k -> new LinkedHashMap<>())
-                                .put(project.getVersion(), project));
+        reactorIndex = new HashMap<>();
+        for (MavenProject project : allProjects) {
+            reactorIndex.put(
+                    CoordKey.project(
+                            project.getGroupId(), project.getArtifactId(), project.getVersion()),
+                    project);
+        }
 
-        for (MavenProject project : mavenSession.getAllProjects()) {
-            Parent parent = project.getModel().getDelegate().getParent();
-            if (parent != null) {
-                processParent(parent);
+        // In pipelined mode parents are processed by each project on its own
+        if (!pipeline) {
+            for (MavenProject project : allProjects) {
+                Parent parent = project.getModel().getDelegate().getParent();
+                if (parent != null) {
+                    processParent(parent, null);
+                }
+            }
+            if (!resolveDeps("model") && stopOnMissing("model")) {
+                output(missingStatus);
+                return;
             }
         }
 
-        if (!resolveDeps()) {
-            logger.error("Missing model dependencies");
-            output();
-            return;
+        List<List<String>> goalSets = parseGoalSets(configuration.get("dola.gleaner.goalSets"));
+        if (goalSets.isEmpty()) {
+            output(analyze(mavenSession, mavenSession.getGoals()));
+        } else {
+            analyzeGoalSets(mavenSession, goalSets);
         }
+    }
 
-        try {
-            for (MavenProject project : mavenSession.getAllProjects()) {
-                mavenSession.setCurrentProject(project);
-                lifecycleExecutor.calculateExecutionPlan(
-                        mavenSession, false, mavenSession.getGoals().toArray(new String[0]));
+    /**
+     * Parses value of {@code dola.gleaner.goalSets}: goal sets are separated by semicolons, and
+     * goals within a set by commas or whitespace, for example {@code package;clean,verify}.
+     */
+    static List<List<String>> parseGoalSets(String value) {
+        List<List<String>> goalSets = new ArrayList<>();
+        if (value != null) {
+            for (String set : value.split(";")) {
+                List<String> goals =
+                        Arrays.stream(set.trim().split("[,\\s]+"))
+                                .filter(goal -> !goal.isEmpty())
+                                .toList();
+                if (!goals.isEmpty()) {
+                    goalSets.add(goals);
+                }
             }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
+        return goalSets;
+    }
 
-        if (!resolveDeps()) {
-            logger.error("Missing plan dependencies");
-            output();
-            return;
+    /**
+     * Computes BuildRequires of several goal sets in one session. Project models are built and
+     * parents resolved once; for each goal set, dependencies collected in the model phase are
+     * restored, and execution plans and required scopes are calculated for its goals.
+     * BuildRequires of each goal set are output after its name, followed by BuildRequires shared
+     * by all goal sets, with the status of the first goal set that did not succeed.
+     */
+    private void analyzeGoalSets(MavenSession mavenSession, List<List<String>> goalSets) {
+        Map<CoordKey, Dep> modelDeps = collector.snapshot();
+        String modelStatus = missingStatus;
+        Set<String> core = null;
+        Set<String> direct = new HashSet<>();
+        Set<String> transitiveOnly = new HashSet<>();
+        String status = "ready";
+        for (List<String> goals : goalSets) {
+            goalSet = String.join("+", goals);
+            logger.info("Analyzing goal set {}", goalSet);
+            if (report != null) {
+                report.setGoalSet(goalSet);
+            }
+            collector.restore(modelDeps);
+            missingStatus = modelStatus;
+            String goalSetStatus = analyze(mavenSession, goals);
+            output(goalSetStatus);
+            if (core == null) {
+                core = new TreeSet<>(brs);
+            } else {
+                core.retainAll(brs);
+            }
+            transitiveOnly.addAll(transitiveOnlyBrs);
+            for (String br : brs) {
+                if (!transitiveOnlyBrs.contains(br)) {
+                    direct.add(br);
+                }
+            }
+            if (status.equals("ready")) {
+                status = goalSetStatus;
+            }
+        }
+        goalSet = null;
+        if (report != null) {
+            report.setGoalSet(null);
+        }
+        logger.info("BuildRequires shared by all {} goal sets", goalSets.size());
+        brs.clear();
+        brs.addAll(core);
+        // Shared BuildRequires required directly by any goal set are not transitive-only
+        transitiveOnlyBrs.clear();
+        transitiveOnlyBrs.addAll(transitiveOnly);
+        transitiveOnlyBrs.retainAll(core);
+        transitiveOnlyBrs.removeAll(direct);
+        output(status);
+    }
+
+    /**
+     * Splits reactor projects into ones whose stored analysis can be reused in incremental mode,
+     * which are returned, and ones that are to be analyzed.
+     */
+    private Map<MavenProject, IncrementalState.Module> reuseModules(
+            List<MavenProject> allProjects, List<String> goals) {
+        Map<MavenProject, IncrementalState.Module> reusedModules = new HashMap<>();
+        analyzedModules = Map.of();
+        if (incrementalState != null) {
+            analyzedModules = new HashMap<>();
+            for (MavenProject project : allProjects) {
+                String label = label("@");
+                String id = label.isEmpty() ? project.getId() : project.getId() + "@" + label;
+                String hash = IncrementalState.hash(project, goals);
+                // Transitive dependencies are not stored, so projects are always analyzed
+                IncrementalState.Module module =
+                        transitive ? null : incrementalState.reuse(id, hash);
+                if (module != null) {
+                    reusedModules.put(project, module);
+                } else {
+                    analyzedModules.put(project, incrementalState.analyze(id, hash));
+                }
+            }
+            logger.info(
+                    "Incremental mode: {} projects changed, {} reused",
+                    analyzedModules.size(),
+                    reusedModules.size());
+        }
+        return reusedModules;
+    }
+
+    /**
+     * Calculates execution plans of all reactor projects for given goals and collects
+     * dependencies of required scopes, leaving BuildRequires in {@code brs}.
+     *
+     * @return status to be output
+     */
+    private String analyze(MavenSession mavenSession, List<String> goals) {
+        incompleteGraphs.clear();
+        if (pipeline) {
+            return analyzePipelined(mavenSession, goals);
+        }
+        List<MavenProject> allProjects = mavenSession.getAllProjects();
+        Map<MavenProject, IncrementalState.Module> reusedModules =
+                reuseModules(allProjects, goals);
+        List<MavenProject> plannedProjects =
+                allProjects.stream()
+                        .filter(project -> !reusedModules.containsKey(project))
+                        .toList();
+
+        calculateExecutionPlans(mavenSession, goals, plannedProjects, false);
+        for (MavenProject project : allProjects) {
+            IncrementalState.Module module = reusedModules.get(project);
+            if (module != null) {
+                replay(module.plan);
+            }
+        }
+
+        if (!resolveDeps("plan") && stopOnMissing("plan")) {
+            return missingStatus;
+        }
+
+        List<MavenExecutionPlan> plans =
+                calculateExecutionPlans(mavenSession, goals, plannedProjects, true);
+        Map<MavenProject, MavenExecutionPlan> planMap = new HashMap<>();
+        for (int i = 0; i < plannedProjects.size(); i++) {
+            planMap.put(plannedProjects.get(i), plans.get(i));
         }
 
         try {
-            for (MavenProject project : mavenSession.getAllProjects()) {
-                Model model = project.getModel().getDelegate();
-                Parent parent = model.getParent();
-                if (parent != null) {
-                    processParent(parent);
+            Set<TransitiveRoot> roots = new LinkedHashSet<>();
+            for (MavenProject project : allProjects) {
+                IncrementalState.Module reused = reusedModules.get(project);
+                if (reused != null) {
+                    logger.info("Reusing stored analysis of project {}", project.getArtifactId());
+                    replay(reused.exec);
+                } else {
+                    execProject(project, planMap.get(project), roots);
                 }
-                mavenSession.setCurrentProject(project);
-                MavenExecutionPlan plan =
-                        lifecycleExecutor.calculateExecutionPlan(
-                                mavenSession, true, mavenSession.getGoals().toArray(new String[0]));
-                logger.info("Build plan for project {}", model.getArtifactId());
-                String phase = "";
-                Set<String> scopes = new LinkedHashSet<>();
-                for (MojoExecution execution : plan.getMojoExecutions()) {
-                    if (!phase.equals(execution.getLifecyclePhase())) {
-                        phase = execution.getLifecyclePhase();
-                        logger.info("  Phase {}", phase);
+            }
+            collectTransitive(roots);
+            endExec();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        boolean resolved = resolveDeps("exec");
+        saveIncrementalState();
+        if (!resolved && stopOnMissing("exec")) {
+            return missingStatus;
+        }
+        return finish();
+    }
+
+    /**
+     * Analyzes reactor projects like {@link #analyze}, but without barriers between phases. Each
+     * project enters the plan and exec stages as soon as dependencies looked up in its previous
+     * stage are resolved. Results are then evaluated phase by phase from the phase each
+     * dependency was discovered in, which gives the same status and BuildRequires as analysis
+     * with barriers. Projects may be logged in a different order, though.
+     */
+    private String analyzePipelined(MavenSession mavenSession, List<String> goals) {
+        List<MavenProject> allProjects = mavenSession.getAllProjects();
+        Map<MavenProject, IncrementalState.Module> reusedModules =
+                reuseModules(allProjects, goals);
+        Pipeline.Body<MavenProject> model =
+                project -> {
+                    Parent parent = project.getModel().getDelegate().getParent();
+                    if (parent != null) {
+                        processParent(parent, null);
                     }
-                    Plugin plugin = execution.getPlugin().getDelegate();
-                    processPlugin(plugin);
-                    MojoDescriptor mojo = execution.getMojoDescriptor();
-                    String reqScope = mojo.getDependencyResolutionRequired();
-                    Set<String> thisScopes = mapPluginDepScope(reqScope);
-                    scopes.addAll(thisScopes);
-                    logger.info(
-                            "    Execution: plugin {} goal {} id {} scope {}{}",
-                            execution.getArtifactId(),
-                            execution.getGoal(),
-                            execution.getExecutionId(),
-                            reqScope,
-                            thisScopes);
-                    for (Dependency dependency : plugin.getDependencies()) {
-                        String scope = dependency.getScope();
-                        if (thisScopes.contains(scope)) {
-                            processDependency(dependency);
+                };
+        Pipeline.Body<MavenProject> plan =
+                project -> {
+                    IncrementalState.Module reused = reusedModules.get(project);
+                    if (reused != null) {
+                        replay(reused.plan);
+                    } else {
+                        calculateExecutionPlan(mavenSession, goals, project, false);
+                    }
+                };
+        Object execLock = new Object();
+        Pipeline.Body<MavenProject> exec =
+                project -> {
+                    IncrementalState.Module reused = reusedModules.get(project);
+                    MavenExecutionPlan setupPlan =
+                            reused == null
+                                    ? calculateExecutionPlan(mavenSession, goals, project, true)
+                                    : null;
+                    Set<TransitiveRoot> roots = new LinkedHashSet<>();
+                    // Build plans of projects are logged one by one, without interleaving
+                    synchronized (execLock) {
+                        if (reused != null) {
+                            logger.info(
+                                    "Reusing stored analysis of project {}",
+                                    project.getArtifactId());
+                            replay(reused.exec);
                         } else {
-                            logger.debug("Plugin dependency scope {} excluded", scope);
+                            execProject(project, setupPlan, roots);
                         }
                     }
+                    collectTransitive(roots);
+                };
+        Pipeline<MavenProject> pipeline =
+                new Pipeline<>(
+                        collector,
+                        resolutionEngine,
+                        session,
+                        continueOnMissing,
+                        List.of(
+                                new Pipeline.Stage<>("model", true, model),
+                                new Pipeline.Stage<>("plan", false, plan),
+                                new Pipeline.Stage<>("exec", true, exec)));
+        pipeline.run(allProjects, planThreads, resolveThreads);
+        endPhase("pipeline");
+        endExec();
+        saveIncrementalState();
+        for (int i = 0; i < pipeline.stageCount(); i++) {
+            int index = i;
+            String phase = pipeline.phase(index);
+            boolean ok =
+                    evaluate(
+                            phase,
+                            pipeline.discoveredUpTo(index),
+                            dep -> pipeline.isDeclaredUpTo(dep, index));
+            ok &= checkTransitiveClosures(phase);
+            if (!ok && stopOnMissing(phase)) {
+                return missingStatus;
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * Collects dependencies of given reactor project required by its execution plan. In
+     * transitive mode, artifacts whose transitive dependencies are required are added to given
+     * roots.
+     */
+    private void execProject(
+            MavenProject project, MavenExecutionPlan plan, Collection<TransitiveRoot> roots) {
+        Model model = project.getModel().getDelegate();
+        IncrementalState.Module module = analyzedModules.get(project);
+        Parent parent = model.getParent();
+        if (parent != null) {
+            processParent(parent, module);
+        }
+        logger.info("Build plan for project {}", model.getArtifactId());
+        String phase = "";
+        Set<String> scopes = new LinkedHashSet<>();
+        for (MojoExecution execution : plan.getMojoExecutions()) {
+            if (!phase.equals(execution.getLifecyclePhase())) {
+                phase = execution.getLifecyclePhase();
+                logger.info("  Phase {}", phase);
+            }
+            Plugin plugin = execution.getPlugin().getDelegate();
+            addRoot(roots, processPlugin(plugin, module), PathScope.MAIN_RUNTIME);
+            MojoDescriptor mojo = execution.getMojoDescriptor();
+            String reqScope = mojo.getDependencyResolutionRequired();
+            Set<String> thisScopes = mapPluginDepScope(reqScope);
+            scopes.addAll(thisScopes);
+            logger.info(
+                    "    Execution: plugin {} goal {} id {} scope {}{}",
+                    execution.getArtifactId(),
+                    execution.getGoal(),
+                    execution.getExecutionId(),
+                    reqScope,
+                    thisScopes);
+            for (Dependency dependency : plugin.getDependencies()) {
+                String scope = dependency.getScope();
+                if (thisScopes.contains(scope)) {
+                    addRoot(
+                            roots,
+                            processDependency(dependency, module),
+                            PathScope.MAIN_RUNTIME);
+                } else {
+                    logger.debug("Plugin dependency scope {} excluded", scope);
                 }
-                logger.info("  Required dependency scopes: {}", scopes);
-                for (Dependency dependency : model.getDependencies()) {
-                    String scope = dependency.getScope();
-                    if (scopes.contains(scope)) {
-                        processDependency(dependency);
-                    } else {
-                        logger.debug("Dependency scope {} excluded", scope);
-                    }
+            }
+        }
+        logger.info("  Required dependency scopes: {}", scopes);
+        // Transitive dependencies have compile or runtime scope, depending on what is required
+        PathScope pathScope =
+                scopes.contains(Artifact.SCOPE_RUNTIME)
+                        ? PathScope.MAIN_RUNTIME
+                        : PathScope.MAIN_COMPILE;
+        for (Dependency dependency : model.getDependencies()) {
+            String scope = dependency.getScope();
+            if (scopes.contains(scope)) {
+                addRoot(roots, processDependency(dependency, module), pathScope);
+            } else {
+                logger.debug("Dependency scope {} excluded", scope);
+            }
+        }
+    }
+
+    private void addRoot(Collection<TransitiveRoot> roots, Dep dep, PathScope scope) {
+        if (transitive && dep != null) {
+            roots.add(new TransitiveRoot(dep, scope));
+        }
+    }
+
+    /**
+     * Collects transitive dependencies of given roots concurrently and looks them up, so that
+     * they are resolved and required like declared dependencies. Graphs are memoized across
+     * modules and plugins.
+     */
+    private void collectTransitive(Collection<TransitiveRoot> roots) {
+        List<TransitiveRoot> rootList = List.copyOf(roots);
+        List<List<ArtifactCoordinates>> graphs =
+                Parallel.map(
+                        rootList,
+                        resolveThreads,
+                        root -> {
+                            try {
+                                return dependencyGraphs.collect(
+                                        session, root.dep().coords, root.scope());
+                            } catch (RuntimeException e) {
+                                logger.error(
+                                        "Unable to collect transitive dependencies of {}: {}",
+                                        root.dep().id,
+                                        e.getMessage());
+                                return null;
+                            }
+                        });
+        for (int i = 0; i < graphs.size(); i++) {
+            List<ArtifactCoordinates> graph = graphs.get(i);
+            if (graph == null) {
+                incompleteGraphs.add(rootList.get(i).dep());
+                continue;
+            }
+            for (ArtifactCoordinates coords : graph) {
+                MavenProject reactorProject =
+                        lookupReactor(
+                                coords.getGroupId(),
+                                coords.getArtifactId(),
+                                coords.getVersionConstraint().toString());
+                if (reactorProject == null) {
+                    collector.lookup(coords).transitive = true;
                 }
             }
-            collector.summarize();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
-        if (!resolveDeps()) {
-            logger.error("Missing exec dependencies");
-            output();
-            return;
+    }
+
+    private void endExec() {
+        collector.summarize();
+        logger.debug(
+                "MOJO descriptor cache: {} hits, {} misses",
+                mojoDescriptorCache.getHits(),
+                mojoDescriptorCache.getMisses());
+    }
+
+    /**
+     * Stores analysis of modules in incremental mode. Called once dependencies of the exec phase
+     * are resolved, so that modules with unresolved dependencies can be left out.
+     */
+    private void saveIncrementalState() {
+        if (incrementalState != null) {
+            incrementalState.save();
+        }
+    }
+
+    /** Returns the final status, after all phases were processed. */
+    private String finish() {
+        if (missingStatus != null) {
+            for (Dep dep : collector.sortedDeps()) {
+                if (!dep.resolved) {
+                    logger.error(
+                            "Missing dependency {} discovered in {} phase", dep.id, dep.phase);
+                }
+            }
+            return missingStatus;
         }
         logger.info("BUILD DEPS READY");
-        output();
+        return "ready";
     }
 }
@@ -0,0 +1,220 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLStreamException;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.v4.MavenStaxWriter;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-module analysis results stored between runs in incremental mode.
+ *
+ * <p>Each module is keyed by its project ID and stores a hash of its inputs together with its
+ * contribution to the {@link Collector}: dependencies looked up while its execution plans were
+ * calculated, and dependencies it declares, with their locations. The hash covers the effective
+ * model of the module, which reflects its POM, the parent chain, active profiles and interpolated
+ * properties, as well as the list of active profiles and build goals. A module whose hash did not
+ * change does not need to be planned again. Modules whose analysis looked up a dependency that was
+ * not resolved, such as a missing plugin whose descriptor was stubbed, are not stored, as their
+ * contributions may change once the dependency is available.
+ */
+final class IncrementalState {
+
+    private static final long FORMAT = 1;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /** A dependency contributed by a module; {@code declared} ones have a location. */
+    record Contribution(
+            String groupId,
+            String artifactId,
+            String extension,
+            String classifier,
+            String version,
+            boolean declared,
+            String url,
+            int line) {}
+
+    static final class Module {
+        final String hash;
+        final Set<Contribution> plan = new LinkedHashSet<>();
+        final Set<Contribution> exec = new LinkedHashSet<>();
+        /** Dependencies looked up while the module was analyzed in this run; not stored. */
+        final Set<Dep> lookups = new LinkedHashSet<>();
+
+        Module(String hash) {
+            this.hash = hash;
+        }
+
+        boolean isComplete() {
+            return lookups.stream().allMatch(dep -> Boolean.TRUE.equals(dep.resolved));
+        }
+    }
+
+    private final Path path;
+    private final Map<String, Module> stored = new LinkedHashMap<>();
+    private final Map<String, Module> current = new LinkedHashMap<>();
+
+    IncrementalState(Path path) {
+        this.path = path;
+        try {
+            MappedHashIndex index = MappedHashIndex.open(path);
+            if (index != null && index.fingerprint() == FORMAT) {
+                for (var entry : index.entries().entrySet()) {
+                    stored.put(entry.getKey(), decode(entry.getValue()));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to read incremental state {}", path, e);
+            stored.clear();
+        }
+    }
+
+    static String hash(MavenProject project, List<String> goals) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            StringWriter sw = new StringWriter();
+            new MavenStaxWriter().write(sw, project.getModel().getDelegate());
+            md.update(sw.toString().getBytes(StandardCharsets.UTF_8));
+            for (Profile profile : project.getActiveProfiles()) {
+                md.update(("\nprofile:" + profile.getId()).getBytes(StandardCharsets.UTF_8));
+            }
+            for (String goal : goals) {
+                md.update(("\ngoal:" + goal).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (IOException | XMLStreamException | NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns stored analysis of given module, provided that its inputs did not change.
+     *
+     * @return stored module, or {@code null} if the module needs to be analyzed
+     */
+    Module reuse(String id, String hash) {
+        Module module = stored.get(id);
+        if (module == null || !module.hash.equals(hash)) {
+            return null;
+        }
+        current.put(id, module);
+        return module;
+    }
+
+    /** Registers a module analyzed in this run, whose contributions are to be stored. */
+    Module analyze(String id, String hash) {
+        Module module = new Module(hash);
+        current.put(id, module);
+        return module;
+    }
+
+    void save() {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try {
+            for (var entry : current.entrySet()) {
+                if (entry.getValue().isComplete()) {
+                    entries.put(entry.getKey(), encode(entry.getValue()));
+                } else {
+                    logger.debug("Not storing {} with unresolved dependencies", entry.getKey());
+                }
+            }
+            MappedHashIndex.write(path, FORMAT, entries);
+            logger.debug("Stored incremental state of {} modules in {}", entries.size(), path);
+        } catch (IOException e) {
+            logger.warn("Unable to write incremental state {}", path, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        out.writeBoolean(str != null);
+        if (str != null) {
+            out.writeUTF(str);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void encode(DataOutputStream out, Set<Contribution> contributions)
+            throws IOException {
+        out.writeInt(contributions.size());
+        for (Contribution c : contributions) {
+            writeString(out, c.groupId());
+            writeString(out, c.artifactId());
+            writeString(out, c.extension());
+            writeString(out, c.classifier());
+            writeString(out, c.version());
+            out.writeBoolean(c.declared());
+            writeString(out, c.url());
+            out.writeInt(c.line());
+        }
+    }
+
+    private static void decode(DataInputStream in, Set<Contribution> contributions)
+            throws IOException {
+        for (int n = in.readInt(); n > 0; n--) {
+            contributions.add(
+                    new Contribution(
+                            readString(in),
+                            readString(in),
+                            readString(in),
+                            readString(in),
+                            readString(in),
+                            in.readBoolean(),
+                            readString(in),
+                            in.readInt()));
+        }
+    }
+
+    private static byte[] encode(Module module) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeUTF(module.hash);
+        encode(out, module.plan);
+        encode(out, module.exec);
+        out.flush();
+        return bos.toByteArray();
+    }
+
+    private static Module decode(byte[] value) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        Module module = new Module(in.readUTF());
+        decode(in, module.plan);
+        decode(in, module.exec);
+        return module;
+    }
+}
@@ -0,0 +1,189 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable string-keyed hash table stored in a file and read through a memory mapping.
+ *
+ * <p>The file consists of a header (magic, format version, fingerprint, slot count, entry count),
+ * an open-addressing table of (key hash, record offset) slots and a sequence of records, each
+ * holding a length-prefixed UTF-8 key and a length-prefixed value. Files are never modified in
+ * place; a new version is written to a temporary file and atomically renamed over the old one, so
+ * any number of processes can read the index without locking.
+ */
+final class MappedHashIndex {
+
+    private static final int MAGIC = 0x44474958;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int SLOT_SIZE = 8;
+
+    private final ByteBuffer buffer;
+    private final long fingerprint;
+    private final int slotCount;
+    private final int entryCount;
+
+    private MappedHashIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.fingerprint = buffer.getLong(8);
+        this.slotCount = buffer.getInt(16);
+        this.entryCount = buffer.getInt(20);
+    }
+
+    /**
+     * Maps an existing index file.
+     *
+     * @return the index, or {@code null} if the file does not exist or is not a valid index
+     */
+    static MappedHashIndex open(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                return null;
+            }
+            int slotCount = buffer.getInt(16);
+            if (Integer.bitCount(slotCount) != 1
+                    || HEADER_SIZE + (long) slotCount * SLOT_SIZE > size) {
+                return null;
+            }
+            return new MappedHashIndex(buffer);
+        }
+    }
+
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    long fingerprint() {
+        return fingerprint;
+    }
+
+    int size() {
+        return entryCount;
+    }
+
+    byte[] get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int h = hash(keyBytes);
+        int mask = slotCount - 1;
+        for (int i = h & mask; ; i = (i + 1) & mask) {
+            int slot = HEADER_SIZE + i * SLOT_SIZE;
+            int offset = buffer.getInt(slot + 4);
+            if (offset == 0) {
+                return null;
+            }
+            if (buffer.getInt(slot) == h && keyEquals(offset, keyBytes)) {
+                int valueOffset = offset + 4 + keyBytes.length;
+                byte[] value = new byte[buffer.getInt(valueOffset)];
+                buffer.get(valueOffset + 4, value);
+                return value;
+            }
+        }
+    }
+
+    private boolean keyEquals(int offset, byte[] keyBytes) {
+        if (buffer.getInt(offset) != keyBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (buffer.get(offset + 4 + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Map<String, byte[]> entries() {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        int offset = HEADER_SIZE + slotCount * SLOT_SIZE;
+        for (int n = 0; n < entryCount; n++) {
+            byte[] key = new byte[buffer.getInt(offset)];
+            buffer.get(offset + 4, key);
+            offset += 4 + key.length;
+            byte[] value = new byte[buffer.getInt(offset)];
+            buffer.get(offset + 4, value);
+            offset += 4 + value.length;
+            entries.put(new String(key, StandardCharsets.UTF_8), value);
+        }
+        return entries;
+    }
+
+    /** Writes a new index file, atomically replacing any existing one. */
+    static void write(Path path, long fingerprint, Map<String, byte[]> entries)
+            throws IOException {
+        int slotCount = Integer.highestOneBit(Math.max(16, entries.size() * 2) - 1) << 1;
+        long size = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+        for (var entry : entries.entrySet()) {
+            size += 8 + entry.getKey().getBytes(StandardCharsets.UTF_8).length;
+            size += entry.getValue().length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Index too large: " + entries.size() + " entries");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(fingerprint);
+        buffer.putInt(slotCount).putInt(entries.size());
+        int mask = slotCount - 1;
+        int offset = HEADER_SIZE + slotCount * SLOT_SIZE;
+        buffer.position(offset);
+        for (var entry : entries.entrySet()) {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] value = entry.getValue();
+            int h = hash(key);
+            int i = h & mask;
+            while (buffer.getInt(HEADER_SIZE + i * SLOT_SIZE + 4) != 0) {
+                i = (i + 1) & mask;
+            }
+            buffer.putInt(HEADER_SIZE + i * SLOT_SIZE, h);
+            buffer.putInt(HEADER_SIZE + i * SLOT_SIZE + 4, offset);
+            buffer.putInt(key.length).put(key).putInt(value.length).put(value);
+            offset = buffer.position();
+        }
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(
+                    temp,
+                    path,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optional timing of individual operations, enabled by setting {@code dola.gleaner.metricsFile} to
+ * a file path.
+ *
+ * <p>For every kind of operation the number of calls, total and maximal time and a histogram of
+ * durations with power-of-two microsecond buckets are kept. The slowest operations, up to {@code
+ * dola.gleaner.metrics.slowest} (20 by default), are remembered together with their subject,
+ * usually artifact coordinates. Everything is written as a JSON document at the end of the run.
+ *
+ * <p>Callers obtain a start time with {@link #start} and pass it to {@link #record} once the
+ * operation is done.
+ */
+@Named
+@Singleton
+public class Metrics {
+
+    private static final int BUCKETS = 40;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Inject private Configuration configuration;
+
+    private record Sample(String operation, String subject, long nanos) {}
+
+    private static final class Stats {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    }
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final PriorityQueue<Sample> slowest =
+            new PriorityQueue<>(Comparator.comparingLong(Sample::nanos));
+
+    private volatile boolean enabled;
+    private volatile long slowestThreshold;
+    private int slowestLimit;
+
+    /** Forgets all recorded data and re-reads configuration. Called when a session starts. */
+    synchronized void reset() {
+        stats.clear();
+        slowest.clear();
+        slowestThreshold = 0;
+        slowestLimit = configuration.getInt("dola.gleaner.metrics.slowest", 20);
+        enabled = configuration.get("dola.gleaner.metricsFile") != null;
+    }
+
+    long start() {
+        return System.nanoTime();
+    }
+
+    /** Records an operation that began at given {@link #start} time. */
+    void record(String operation, Object subject, long start) {
+        if (!enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        Stats s = stats.computeIfAbsent(operation, k -> new Stats());
+        s.count.increment();
+        s.totalNanos.add(nanos);
+        s.maxNanos.accumulateAndGet(nanos, Math::max);
+        long micros = nanos / 1000;
+        int bucket =
+                micros == 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+        s.histogram.incrementAndGet(bucket);
+        if (nanos > slowestThreshold && slowestLimit > 0) {
+            recordSlow(new Sample(operation, String.valueOf(subject), nanos));
+        }
+    }
+
+    private synchronized void recordSlow(Sample sample) {
+        slowest.add(sample);
+        if (slowest.size() > slowestLimit) {
+            slowest.poll();
+        }
+        if (slowest.size() == slowestLimit) {
+            slowestThreshold = slowest.peek().nanos();
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /** Writes recorded metrics to the configured file, if metrics are enabled. */
+    synchronized void write() {
+        String file = configuration.get("dola.gleaner.metricsFile");
+        if (!enabled || file == null) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("{\n  \"operations\": {");
+        String sep = "\n";
+        for (var entry : new TreeMap<>(stats).entrySet()) {
+            Stats s = entry.getValue();
+            sb.append(sep).append("    ");
+            Report.quote(sb, entry.getKey());
+            sb.append(": {\"count\":").append(s.count.sum());
+            sb.append(",\"totalMillis\":").append(millis(s.totalNanos.sum()));
+            sb.append(",\"maxMillis\":").append(millis(s.maxNanos.get()));
+            sb.append(",\"histogram\":[");
+            String bucketSep = "";
+            for (int i = 0; i < BUCKETS; i++) {
+                long n = s.histogram.get(i);
+                if (n > 0) {
+                    // Bucket i holds durations below 2^i microseconds
+                    sb.append(bucketSep).append("{\"belowMicros\":");
+                    sb.append(i < BUCKETS - 1 ? Long.toString(1L << i) : "null");
+                    sb.append(",\"count\":").append(n).append('}');
+                    bucketSep = ",";
+                }
+            }
+            sb.append("]}");
+            sep = ",\n";
+        }
+        sb.append("\n  },\n  \"slowest\": [");
+        List<Sample> samples = new ArrayList<>(slowest);
+        samples.sort(Comparator.comparingLong(Sample::nanos).reversed());
+        sep = "\n";
+        for (Sample sample : samples) {
+            sb.append(sep).append("    {\"operation\":");
+            Report.quote(sb, sample.operation());
+            sb.append(",\"subject\":");
+            Report.quote(sb, sample.subject());
+            sb.append(",\"millis\":").append(millis(sample.nanos())).append('}');
+            sep = ",\n";
+        }
+        sb.append("\n  ]\n}\n");
+        Path path = Path.of(file);
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            writer.write(sb.toString());
+            logger.debug("Metrics written to {}", path);
+        } catch (IOException e) {
+            logger.error("I/O exception when writing metrics file " + path, e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.descriptor.DuplicateMojoDescriptorException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.eclipse.aether.repository.RemoteRepository;
+
+/**
+ * Reactor-wide cache of MOJO descriptors keyed by plugin coordinates, plugin dependencies,
+ * repositories and goal, as modules may declare the same plugin with different dependencies or
+ * resolve it from different repositories. Failed lookups are cached as empty results. Concurrent
+ * requests for the same key wait for a single load.
+ *
+ * <p>Like Maven's own plugin descriptor cache, every lookup returns a copy of the cached descriptor
+ * whose plugin descriptor refers to the plugin of the caller, so that plugin locations are
+ * attributed to the module that declared the plugin.
+ */
+@Named
+@Singleton
+public class MojoDescriptorCache {
+
+    private final ConcurrentMap<String, CompletableFuture<Optional<MojoDescriptor>>> cache =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private static String key(Plugin plugin, String goal, List<RemoteRepository> repositories) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(plugin.getGroupId()).append(':');
+        sb.append(plugin.getArtifactId()).append(':');
+        sb.append(plugin.getVersion()).append(':');
+        sb.append(goal);
+        for (Dependency dependency : plugin.getDependencies()) {
+            sb.append('+').append(dependency.getGroupId());
+            sb.append(':').append(dependency.getArtifactId());
+            sb.append(':').append(dependency.getType());
+            sb.append(':').append(dependency.getClassifier());
+            sb.append(':').append(dependency.getVersion());
+            sb.append(':').append(dependency.getScope());
+            for (Exclusion exclusion : dependency.getExclusions()) {
+                sb.append('!').append(exclusion.getGroupId());
+                sb.append(':').append(exclusion.getArtifactId());
+            }
+        }
+        for (RemoteRepository repository : repositories) {
+            sb.append('@').append(repository.getId()).append('=').append(repository.getUrl());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a copy of given MOJO descriptor together with its plugin descriptor and all its
+     * sibling MOJOs, with the plugin descriptor referring to given plugin.
+     */
+    static MojoDescriptor copy(MojoDescriptor mojo, Plugin plugin) {
+        PluginDescriptor original = mojo.getPluginDescriptor();
+        PluginDescriptor pd = new PluginDescriptor();
+        pd.setGroupId(original.getGroupId());
+        pd.setArtifactId(original.getArtifactId());
+        pd.setVersion(original.getVersion());
+        pd.setGoalPrefix(original.getGoalPrefix());
+        pd.setInheritedByDefault(original.isInheritedByDefault());
+        pd.setName(original.getName());
+        pd.setDescription(original.getDescription());
+        pd.setRequiredMavenVersion(original.getRequiredMavenVersion());
+        pd.setPluginArtifact(original.getPluginArtifact());
+        pd.setArtifacts(original.getArtifacts());
+        pd.setClassRealm(original.getClassRealm());
+        pd.setSource(original.getSource());
+        pd.setDependencies(original.getDependencies());
+        pd.setPlugin(plugin);
+        MojoDescriptor result = null;
+        List<MojoDescriptor> mojos = original.getMojos() != null ? original.getMojos() : List.of();
+        for (MojoDescriptor sibling : mojos) {
+            MojoDescriptor clone = sibling.clone();
+            clone.setPluginDescriptor(pd);
+            try {
+                pd.addMojo(clone);
+            } catch (DuplicateMojoDescriptorException e) {
+                throw new IllegalStateException(e);
+            }
+            if (sibling == mojo) {
+                result = clone;
+            }
+        }
+        if (result == null) {
+            result = mojo.clone();
+            result.setPluginDescriptor(pd);
+        }
+        return result;
+    }
+
+    /**
+     * Returns descriptor of given plugin goal, calling {@code loader} if it is not cached yet.
+     * The returned descriptor is a copy that refers to {@code plugin}.
+     */
+    Optional<MojoDescriptor> get(
+            Plugin plugin,
+            String goal,
+            List<RemoteRepository> repositories,
+            Supplier<Optional<MojoDescriptor>> loader) {
+        return lookup(plugin, goal, repositories, loader).map(mojo -> copy(mojo, plugin));
+    }
+
+    private Optional<MojoDescriptor> lookup(
+            Plugin plugin,
+            String goal,
+            List<RemoteRepository> repositories,
+            Supplier<Optional<MojoDescriptor>> loader) {
+        String key = key(plugin, goal, repositories);
+        CompletableFuture<Optional<MojoDescriptor>> future = cache.get(key);
+        if (future == null) {
+            CompletableFuture<Optional<MojoDescriptor>> ours = new CompletableFuture<>();
+            future = cache.putIfAbsent(key, ours);
+            if (future == null) {
+                misses.increment();
+                try {
+                    Optional<MojoDescriptor> result = loader.get();
+                    ours.complete(result);
+                    return result;
+                } catch (RuntimeException e) {
+                    cache.remove(key, ours);
+                    ours.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        hits.increment();
+        return future.join();
+    }
+
+    /** Forgets failed lookups, which may succeed once missing plugins are installed. */
+    void removeFailures() {
+        cache.values()
+                .removeIf(
+                        future ->
+                                future.isDone()
+                                        && !future.isCompletedExceptionally()
+                                        && future.join().isEmpty());
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,89 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Applies a task to a list of items on a bounded pool of worker threads, returning results in the
+ * order of the input list. With a single thread the task runs inline on the caller.
+ */
+final class Parallel {
+
+    interface Task<T, R> {
+        R apply(T item) throws Exception;
+    }
+
+    private Parallel() {}
+
+    static <T, R> List<R> map(List<T> items, int threads, Task<T, R> task) {
+        List<R> results = new ArrayList<>(items.size());
+        int poolSize = Math.min(threads, items.size());
+        if (poolSize <= 1) {
+            for (T item : items) {
+                results.add(call(task, item));
+            }
+            return results;
+        }
+        ExecutorService executor = newPool(poolSize);
+        try {
+            List<Future<R>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> call(task, item)));
+            }
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Creates a fixed pool of daemon worker threads, to be shut down by the caller. */
+    static ExecutorService newPool(int threads) {
+        return Executors.newFixedThreadPool(
+                threads,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dola-gleaner-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static <T, R> R call(Task<T, R> task, T item) {
+        try {
+            return task.apply(item);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
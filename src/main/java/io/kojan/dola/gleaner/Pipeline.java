@@ -0,0 +1,209 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import org.apache.maven.api.Session;
+
+/**
+ * Schedules analysis of reactor modules through successive stages without barriers between
+ * them. A module enters its next stage as soon as all dependencies looked up in its previous
+ * stage are resolved, so that it does not wait for the slowest resolution anywhere in the
+ * reactor. Each dependency is resolved once, even if many modules look it up concurrently.
+ *
+ * <p>For every dependency, the earliest stage it was looked up in and the earliest stage it was
+ * declared in are recorded, so that results can be evaluated as if stages were separated by
+ * barriers. Dependencies collected before the pipeline is run are considered to be looked up in
+ * the first stage. Unless missing dependencies are tolerated, a module does not continue after a
+ * stage with unresolved dependencies, and no module starts a stage later than the earliest stage
+ * that failed, as its results would not be used.
+ */
+final class Pipeline<T> {
+
+    interface Body<T> {
+        void run(T module) throws Exception;
+    }
+
+    /**
+     * A stage of the pipeline, corresponding to one phase. Dependencies looked up by the body
+     * of a {@code declaring} stage that have locations are considered declared in that stage.
+     */
+    record Stage<T>(String phase, boolean declaring, Body<T> body) {}
+
+    private final Collector collector;
+    private final ResolutionEngine resolutionEngine;
+    private final Session session;
+    private final boolean continueOnMissing;
+    private final List<Stage<T>> stages;
+
+    private final Map<Dep, CompletableFuture<Void>> resolutions = new ConcurrentHashMap<>();
+    private final Map<Dep, Integer> discovered = new ConcurrentHashMap<>();
+    private final Map<Dep, Integer> declared = new ConcurrentHashMap<>();
+    private volatile int failedStage = Integer.MAX_VALUE;
+    private ExecutorService resolveExecutor;
+
+    Pipeline(
+            Collector collector,
+            ResolutionEngine resolutionEngine,
+            Session session,
+            boolean continueOnMissing,
+            List<Stage<T>> stages) {
+        this.collector = collector;
+        this.resolutionEngine = resolutionEngine;
+        this.session = session;
+        this.continueOnMissing = continueOnMissing;
+        this.stages = stages;
+    }
+
+    int stageCount() {
+        return stages.size();
+    }
+
+    String phase(int stage) {
+        return stages.get(stage).phase();
+    }
+
+    /**
+     * Runs all stages for given modules and waits until they are done. Once finished, every
+     * collected dependency is resolved and its phase is set to the one it was discovered in.
+     */
+    void run(List<T> modules, int stageThreads, int resolveThreads) {
+        ExecutorService stageExecutor = Parallel.newPool(Math.max(stageThreads, 1));
+        resolveExecutor = Parallel.newPool(Math.max(resolveThreads, 1));
+        try {
+            List<CompletableFuture<?>> futures = new ArrayList<>();
+            List<Dep> known = collector.sortedDeps();
+            for (Dep dep : known) {
+                record(dep, 0, dep.isStrong());
+            }
+            futures.add(resolve(known).thenRun(() -> checkResolved(known, 0)));
+            for (T module : modules) {
+                CompletableFuture<Boolean> future = CompletableFuture.completedFuture(true);
+                for (int i = 0; i < stages.size(); i++) {
+                    int stage = i;
+                    future =
+                            future.thenComposeAsync(
+                                    proceed -> advance(module, stage, proceed), stageExecutor);
+                }
+                futures.add(future);
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            stageExecutor.shutdownNow();
+            resolveExecutor.shutdownNow();
+        }
+        // Dependencies may also be looked up outside of stages, by other threads
+        List<Dep> pending = new ArrayList<>();
+        for (Dep dep : collector.sortedDeps()) {
+            int stage = discovered.computeIfAbsent(dep, d -> stages.size() - 1);
+            dep.phase = stages.get(stage).phase();
+            if (dep.resolved == null) {
+                pending.add(dep);
+            }
+        }
+        resolutionEngine.resolveAll(session, pending, resolveThreads);
+    }
+
+    private CompletableFuture<Boolean> advance(T module, int stage, boolean proceed) {
+        if (!proceed || !continueOnMissing && stage > failedStage) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return runStage(module, stage);
+    }
+
+    private CompletableFuture<Boolean> runStage(T module, int stage) {
+        Stage<T> s = stages.get(stage);
+        Set<Dep> lookedUp = new LinkedHashSet<>();
+        Set<Dep> outer = collector.startRecording(lookedUp);
+        try {
+            s.body().run(module);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            collector.stopRecording(outer);
+        }
+        for (Dep dep : lookedUp) {
+            record(dep, stage, s.declaring() && dep.isStrong());
+        }
+        return resolve(lookedUp)
+                .thenApply(v -> checkResolved(lookedUp, stage) || continueOnMissing);
+    }
+
+    private void record(Dep dep, int stage, boolean declaredNow) {
+        discovered.merge(dep, stage, Math::min);
+        if (declaredNow) {
+            declared.merge(dep, stage, Math::min);
+        }
+    }
+
+    private boolean checkResolved(Collection<Dep> deps, int stage) {
+        for (Dep dep : deps) {
+            if (!Boolean.TRUE.equals(dep.resolved)) {
+                synchronized (this) {
+                    failedStage = Math.min(failedStage, stage);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Resolves given dependencies, unless they are resolved or being resolved already. */
+    private CompletableFuture<Void> resolve(Collection<Dep> deps) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Dep dep : deps) {
+            if (dep.resolved == null) {
+                futures.add(
+                        resolutions.computeIfAbsent(
+                                dep,
+                                d ->
+                                        CompletableFuture.runAsync(
+                                                () ->
+                                                        resolutionEngine.resolveAll(
+                                                                session, List.of(d), 1),
+                                                resolveExecutor)));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /** Returns dependencies discovered in given stage or earlier, sorted by their ID. */
+    List<Dep> discoveredUpTo(int stage) {
+        return collector.sortedDeps().stream()
+                .filter(dep -> discovered.get(dep) <= stage)
+                .toList();
+    }
+
+    boolean isDeclaredUpTo(Dep dep, int stage) {
+        return declared.getOrDefault(dep, Integer.MAX_VALUE) <= stage;
+    }
+}
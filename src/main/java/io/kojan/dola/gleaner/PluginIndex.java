@@ -0,0 +1,348 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.descriptor.ComponentDependency;
+import org.apache.maven.plugin.descriptor.DuplicateMojoDescriptorException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optional persistent index of plugin goal metadata, enabled by setting {@code
+ * dola.gleaner.pluginIndex} to a file path.
+ *
+ * <p>For every plugin loaded through the plugin manager, the goals with their default phase,
+ * dependency resolution and collection scopes, forked executions and flags are stored together
+ * with the plugin dependencies and the SHA-256 checksum of the plugin JAR. Later lookups are
+ * answered from the index when the checksum of the resolved JAR still matches. Goals that fork a
+ * custom lifecycle are not answered from the index, as the lifecycle mapping is read from the
+ * plugin JAR.
+ */
+@Named
+@Singleton
+public class PluginIndex {
+
+    private static final long FORMAT = 1;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Inject private RepositorySystem repositorySystem;
+
+    @Inject private Configuration configuration;
+
+    /** Index file named by given property value, published as a whole to lock-free lookups. */
+    private record Loaded(String prop, Path path, MappedHashIndex index) {}
+
+    /** Checksum of a plugin JAR with the modification time it was computed for. */
+    private record Checksum(FileTime modified, String sha256) {}
+
+    private final Map<String, byte[]> added = new ConcurrentHashMap<>();
+    private final Map<Path, Checksum> checksums = new ConcurrentHashMap<>();
+
+    private volatile Loaded loaded;
+
+    private static String key(Plugin plugin) {
+        return plugin.getGroupId() + ':' + plugin.getArtifactId() + ':' + plugin.getVersion();
+    }
+
+    /** Returns the loaded index, or {@code null} if the plugin index is not enabled. */
+    private Loaded load() {
+        String prop = configuration.get("dola.gleaner.pluginIndex");
+        if (prop == null) {
+            return null;
+        }
+        Loaded current = loaded;
+        if (current == null || !prop.equals(current.prop())) {
+            current = reload(prop);
+        }
+        return current;
+    }
+
+    private synchronized Loaded reload(String prop) {
+        Loaded current = loaded;
+        if (current != null && prop.equals(current.prop())) {
+            return current;
+        }
+        flush();
+        Path path = Path.of(prop);
+        MappedHashIndex index = null;
+        try {
+            index = MappedHashIndex.open(path);
+            if (index != null && index.fingerprint() != FORMAT) {
+                index = null;
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to read plugin index {}", path, e);
+            index = null;
+        }
+        current = new Loaded(prop, path, index);
+        loaded = current;
+        return current;
+    }
+
+    /**
+     * Returns SHA-256 checksum of given JAR, which is computed again only if the modification time
+     * of the file changed since it was last computed.
+     */
+    private String checksum(Path jar) {
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(jar);
+        } catch (IOException e) {
+            logger.warn("Unable to compute checksum of {}", jar, e);
+            return null;
+        }
+        Checksum cached = checksums.get(jar);
+        if (cached != null && cached.modified().equals(modified)) {
+            return cached.sha256();
+        }
+        try (InputStream is = Files.newInputStream(jar)) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] buf = new byte[65536];
+            int n;
+            while ((n = is.read(buf)) > 0) {
+                md.update(buf, 0, n);
+            }
+            String sha256 = HexFormat.of().formatHex(md.digest());
+            checksums.put(jar, new Checksum(modified, sha256));
+            return sha256;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.warn("Unable to compute checksum of {}", jar, e);
+            return null;
+        }
+    }
+
+    private Path resolveJar(
+            Plugin plugin, List<RemoteRepository> repositories, RepositorySystemSession session) {
+        DefaultArtifact artifact =
+                new DefaultArtifact(
+                        plugin.getGroupId(), plugin.getArtifactId(), "jar", plugin.getVersion());
+        try {
+            return repositorySystem
+                    .resolveArtifact(session, new ArtifactRequest(artifact, repositories, null))
+                    .getArtifact()
+                    .getFile()
+                    .toPath();
+        } catch (ArtifactResolutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Looks up descriptor of given plugin goal in the index.
+     *
+     * @return the descriptor, or {@code null} if the goal cannot be answered from the index
+     */
+    MojoDescriptor get(
+            Plugin plugin,
+            String goal,
+            List<RemoteRepository> repositories,
+            RepositorySystemSession session) {
+        Loaded current = load();
+        if (current == null) {
+            return null;
+        }
+        String key = key(plugin);
+        byte[] value = added.get(key);
+        if (value == null && current.index() != null) {
+            value = current.index().get(key);
+        }
+        if (value == null) {
+            return null;
+        }
+        Path jar = resolveJar(plugin, repositories, session);
+        String checksum = jar != null ? checksum(jar) : null;
+        if (checksum == null) {
+            return null;
+        }
+        try {
+            return decode(value, checksum, plugin, goal);
+        } catch (IOException e) {
+            logger.warn("Corrupted plugin index entry for {}", key, e);
+            return null;
+        }
+    }
+
+    /** Records all goals of the plugin that given descriptor was loaded from. */
+    void put(Plugin plugin, MojoDescriptor mojo) {
+        if (load() == null || added.containsKey(key(plugin))) {
+            return;
+        }
+        PluginDescriptor pd = mojo.getPluginDescriptor();
+        if (pd.getPluginArtifact() == null || pd.getPluginArtifact().getFile() == null) {
+            return;
+        }
+        String checksum = checksum(pd.getPluginArtifact().getFile().toPath());
+        if (checksum == null) {
+            return;
+        }
+        try {
+            added.put(key(plugin), encode(pd, checksum));
+        } catch (IOException e) {
+            logger.warn("Unable to index plugin {}", key(plugin), e);
+        }
+    }
+
+    /** Merges plugins indexed during this run into the index file. */
+    synchronized void flush() {
+        Loaded current = loaded;
+        if (current == null || added.isEmpty()) {
+            return;
+        }
+        Path path = current.path();
+        try {
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            MappedHashIndex stored = MappedHashIndex.open(path);
+            if (stored != null && stored.fingerprint() == FORMAT) {
+                entries.putAll(stored.entries());
+            }
+            entries.putAll(added);
+            MappedHashIndex.write(path, FORMAT, entries);
+            logger.debug("Stored {} plugins in plugin index {}", entries.size(), path);
+            added.clear();
+            loaded = new Loaded(current.prop(), path, MappedHashIndex.open(path));
+        } catch (IOException e) {
+            logger.warn("Unable to write plugin index {}", path, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        out.writeBoolean(str != null);
+        if (str != null) {
+            out.writeUTF(str);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] encode(PluginDescriptor pd, String checksum) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeUTF(checksum);
+        writeString(out, pd.getGoalPrefix());
+        List<ComponentDependency> deps =
+                pd.getDependencies() != null ? pd.getDependencies() : List.of();
+        out.writeInt(deps.size());
+        for (ComponentDependency dep : deps) {
+            writeString(out, dep.getGroupId());
+            writeString(out, dep.getArtifactId());
+            writeString(out, dep.getVersion());
+            writeString(out, dep.getType());
+        }
+        List<MojoDescriptor> mojos = pd.getMojos() != null ? pd.getMojos() : List.of();
+        out.writeInt(mojos.size());
+        for (MojoDescriptor md : mojos) {
+            writeString(out, md.getGoal());
+            writeString(out, md.getPhase());
+            writeString(out, md.getDependencyResolutionRequired());
+            writeString(out, md.getDependencyCollectionRequired());
+            writeString(out, md.getExecutePhase());
+            writeString(out, md.getExecuteGoal());
+            writeString(out, md.getExecuteLifecycle());
+            out.writeBoolean(md.isAggregator());
+            out.writeBoolean(md.isProjectRequired());
+            out.writeBoolean(md.isOnlineRequired());
+            out.writeBoolean(md.isThreadSafe());
+            out.writeBoolean(md.isInheritedByDefault());
+        }
+        out.flush();
+        return bos.toByteArray();
+    }
+
+    private static MojoDescriptor decode(byte[] value, String checksum, Plugin plugin, String goal)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        if (!in.readUTF().equals(checksum)) {
+            return null;
+        }
+        PluginDescriptor pd = new PluginDescriptor();
+        pd.setGroupId(plugin.getGroupId());
+        pd.setArtifactId(plugin.getArtifactId());
+        pd.setVersion(plugin.getVersion());
+        pd.setGoalPrefix(readString(in));
+        pd.setPlugin(plugin);
+        List<ComponentDependency> deps = new ArrayList<>();
+        for (int n = in.readInt(); n > 0; n--) {
+            ComponentDependency dep = new ComponentDependency();
+            dep.setGroupId(readString(in));
+            dep.setArtifactId(readString(in));
+            dep.setVersion(readString(in));
+            dep.setType(readString(in));
+            deps.add(dep);
+        }
+        pd.setDependencies(deps);
+        MojoDescriptor result = null;
+        for (int n = in.readInt(); n > 0; n--) {
+            MojoDescriptor md = new MojoDescriptor();
+            md.setGoal(readString(in));
+            md.setPhase(readString(in));
+            md.setDependencyResolutionRequired(readString(in));
+            md.setDependencyCollectionRequired(readString(in));
+            md.setExecutePhase(readString(in));
+            md.setExecuteGoal(readString(in));
+            md.setExecuteLifecycle(readString(in));
+            md.setAggregator(in.readBoolean());
+            md.setProjectRequired(in.readBoolean());
+            md.setOnlineRequired(in.readBoolean());
+            md.setThreadSafe(in.readBoolean());
+            md.setInheritedByDefault(in.readBoolean());
+            md.setPluginDescriptor(pd);
+            try {
+                pd.addMojo(md);
+            } catch (DuplicateMojoDescriptorException e) {
+                throw new IOException(e);
+            }
+            if (goal.equals(md.getGoal())) {
+                result = md;
+            }
+        }
+        if (result == null || result.getExecuteLifecycle() != null) {
+            return null;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,221 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Machine-readable report written as newline-delimited JSON. Records are streamed as soon as each
+ * phase finishes:
+ *
+ * <ul>
+ *   <li>{@code "type":"phase"} records carry wall time and number of artifact resolution requests
+ *       of each phase; the {@code projects} phase covers time from session start until Gleaner
+ *       runs, which is mostly spent building project models; in pipelined mode, a single {@code
+ *       pipeline} phase covers all stages,
+ *   <li>{@code "type":"dependency"} records describe state of every known dependency after
+ *       resolution in given phase, including the phase it was discovered in,
+ *   <li>a final {@code "type":"result"} record carries the overall status and the BuildRequires;
+ *       in transitive mode, BuildRequires required only transitively are listed separately.
+ * </ul>
+ *
+ * <p>When several goal sets are computed in one session, records written for a particular goal set
+ * carry its name in a {@code goalSet} field. Each goal set gets its own result record, and the
+ * final result record carries the BuildRequires shared by all goal sets. Likewise, in matrix mode
+ * records carry the name of the variant they belong to in a {@code variant} field, and each
+ * variant gets its own results.
+ */
+class Report implements AutoCloseable {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Path path;
+    private Writer writer;
+    private String variant;
+    private String goalSet;
+
+    Report(Path path) {
+        this.path = path;
+        try {
+            writer = Files.newBufferedWriter(path);
+        } catch (IOException e) {
+            logger.error("I/O exception when opening report file " + path, e);
+        }
+    }
+
+    static void quote(StringBuilder sb, String str) {
+        if (str == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    static void quote(StringBuilder sb, Collection<String> strs) {
+        sb.append('[');
+        String sep = "";
+        for (String str : strs) {
+            sb.append(sep);
+            quote(sb, str);
+            sep = ",";
+        }
+        sb.append(']');
+    }
+
+    /** Sets name of the variant that subsequent records belong to, or {@code null} for none. */
+    void setVariant(String variant) {
+        this.variant = variant;
+    }
+
+    /** Sets name of the goal set that subsequent records belong to, or {@code null} for none. */
+    void setGoalSet(String goalSet) {
+        this.goalSet = goalSet;
+    }
+
+    private void appendLabels(StringBuilder sb) {
+        if (variant != null) {
+            sb.append(",\"variant\":");
+            quote(sb, variant);
+        }
+        if (goalSet != null) {
+            sb.append(",\"goalSet\":");
+            quote(sb, goalSet);
+        }
+    }
+
+    private void write(StringBuilder sb) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(sb.append('\n').toString());
+        } catch (IOException e) {
+            logger.error("I/O exception when writing report file " + path, e);
+            close();
+        }
+    }
+
+    void dependency(
+            String phase,
+            Dep dep,
+            boolean strong,
+            boolean transitive,
+            boolean filtered,
+            String compatVersion) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"type\":\"dependency\",\"phase\":");
+        quote(sb, phase);
+        sb.append(",\"groupId\":");
+        quote(sb, dep.groupId);
+        sb.append(",\"artifactId\":");
+        quote(sb, dep.artifactId);
+        sb.append(",\"extension\":");
+        quote(sb, dep.extension);
+        sb.append(",\"classifier\":");
+        quote(sb, dep.classifier);
+        sb.append(",\"version\":");
+        quote(sb, dep.requestedVersion);
+        sb.append(",\"strong\":").append(strong);
+        sb.append(",\"transitive\":").append(transitive);
+        sb.append(",\"resolved\":").append(dep.resolved);
+        sb.append(",\"discoveredIn\":");
+        quote(sb, dep.phase);
+        sb.append(",\"filtered\":").append(filtered);
+        sb.append(",\"compatVersion\":");
+        quote(sb, compatVersion);
+        sb.append(",\"locations\":");
+        quote(sb, dep.foundLocations());
+        appendLabels(sb);
+        sb.append('}');
+        write(sb);
+    }
+
+    void phase(String phase, long millis, long resolverCalls) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"type\":\"phase\",\"phase\":");
+        quote(sb, phase);
+        sb.append(",\"millis\":").append(millis);
+        sb.append(",\"resolverCalls\":").append(resolverCalls);
+        appendLabels(sb);
+        sb.append('}');
+        write(sb);
+    }
+
+    void result(String status, Collection<String> brs, Collection<String> transitiveOnly) {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("{\"type\":\"result\",\"status\":");
+        quote(sb, status);
+        sb.append(",\"buildRequires\":");
+        quote(sb, brs);
+        if (transitiveOnly != null) {
+            sb.append(",\"transitiveOnly\":");
+            quote(sb, transitiveOnly);
+        }
+        appendLabels(sb);
+        sb.append('}');
+        write(sb);
+    }
+
+    /** Flushes records written so far, so that readers can consume them incrementally. */
+    void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("I/O exception when writing report file " + path, e);
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.error("I/O exception when closing report file " + path, e);
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,265 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.api.ArtifactCoordinates;
+import org.apache.maven.api.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optional index of artifacts present in a repository, enabled by setting {@code
+ * dola.gleaner.repositoryIndex} to a file path.
+ *
+ * <p>The repository, by default the local repository of the session or the directory given by
+ * {@code dola.gleaner.repositoryIndex.root}, is scanned once and every file laid out as {@code
+ * group/artifact/version/artifact-version[-classifier].extension} is recorded. The index is
+ * rebuilt when the repository root or the optional {@code dola.gleaner.repositoryIndex.fingerprint}
+ * value changes, or when the index file is removed.
+ *
+ * <p>Artifacts found in the index are resolved to their files without asking Maven resolver. For
+ * artifacts not in the index Maven resolver is asked as usual, unless {@code
+ * dola.gleaner.repositoryIndex.authoritative} is set, in which case they are reported as absent
+ * unless their file has appeared in the repository since the index was built, so that artifacts
+ * installed after indexing are not missed. Snapshots with timestamped file names are not indexed.
+ */
+@Named
+@Singleton
+public class RepositoryIndex {
+
+    private static final long FORMAT = 1;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Inject private Configuration configuration;
+
+    /** Index loaded for a session, published as a whole so that lookups see a consistent state. */
+    private record Loaded(
+            Session session, Path root, MappedHashIndex index, boolean authoritative) {}
+
+    private volatile Loaded loaded;
+    private MappedHashIndex index;
+    private Path indexPath;
+    private long indexFingerprint;
+
+    private long fingerprint(Path root) {
+        String str =
+                FORMAT
+                        + "\n"
+                        + root.toAbsolutePath()
+                        + "\n"
+                        + configuration.get("dola.gleaner.repositoryIndex.fingerprint", "");
+        long h = 1125899906842597L;
+        for (byte b : str.getBytes(StandardCharsets.UTF_8)) {
+            h = 31 * h + b;
+        }
+        return h;
+    }
+
+    private Loaded load(Session session) {
+        Loaded current = loaded;
+        if (current == null || current.session() != session) {
+            current = reload(session);
+        }
+        return current;
+    }
+
+    private synchronized Loaded reload(Session session) {
+        Loaded current = loaded;
+        if (current != null && current.session() == session) {
+            return current;
+        }
+        String prop = configuration.get("dola.gleaner.repositoryIndex");
+        Path root = null;
+        boolean authoritative = false;
+        if (prop == null) {
+            index = null;
+        } else {
+            String rootProp = configuration.get("dola.gleaner.repositoryIndex.root");
+            root = rootProp != null ? Path.of(rootProp) : session.getLocalRepository().getPath();
+            authoritative =
+                    Boolean.parseBoolean(
+                            configuration.get("dola.gleaner.repositoryIndex.authoritative"));
+            open(Path.of(prop), root);
+        }
+        current = new Loaded(session, root, index, authoritative);
+        loaded = current;
+        return current;
+    }
+
+    /** Opens index of given repository, rebuilding it unless the stored fingerprint matches. */
+    private void open(Path path, Path root) {
+        long fingerprint = fingerprint(root);
+        if (index != null && path.equals(indexPath) && fingerprint == indexFingerprint) {
+            return;
+        }
+        index = null;
+        indexPath = path;
+        indexFingerprint = fingerprint;
+        try {
+            MappedHashIndex existing = MappedHashIndex.open(path);
+            if (existing != null && existing.fingerprint() == fingerprint) {
+                index = existing;
+                return;
+            }
+            long start = System.nanoTime();
+            Map<String, byte[]> entries = scan(root);
+            MappedHashIndex.write(path, fingerprint, entries);
+            index = MappedHashIndex.open(path);
+            logger.info(
+                    "Indexed {} artifacts of repository {} in {} ms",
+                    entries.size(),
+                    root,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.warn("Unable to build repository index {}", path, e);
+        }
+    }
+
+    /**
+     * Returns index key of given file in Maven repository layout, or {@code null} if the file is
+     * not an artifact.
+     */
+    static String key(Path relative) {
+        int n = relative.getNameCount();
+        if (n < 4) {
+            return null;
+        }
+        String fileName = relative.getName(n - 1).toString();
+        String version = relative.getName(n - 2).toString();
+        String artifactId = relative.getName(n - 3).toString();
+        String prefix = artifactId + '-' + version;
+        if (!fileName.startsWith(prefix) || fileName.length() == prefix.length()) {
+            return null;
+        }
+        String rest = fileName.substring(prefix.length());
+        String classifier = "";
+        if (rest.charAt(0) == '-') {
+            int dot = rest.indexOf('.');
+            if (dot < 2) {
+                return null;
+            }
+            classifier = rest.substring(1, dot);
+            rest = rest.substring(dot);
+        }
+        if (rest.charAt(0) != '.' || rest.length() == 1) {
+            return null;
+        }
+        String extension = rest.substring(1);
+        if (extension.endsWith(".sha1")
+                || extension.endsWith(".sha256")
+                || extension.endsWith(".sha512")
+                || extension.endsWith(".md5")
+                || extension.endsWith(".asc")
+                || extension.endsWith(".lastUpdated")) {
+            return null;
+        }
+        StringBuilder groupId = new StringBuilder();
+        for (int i = 0; i < n - 3; i++) {
+            if (i > 0) {
+                groupId.append('.');
+            }
+            groupId.append(relative.getName(i));
+        }
+        return groupId + ":" + artifactId + ":" + extension + ":" + classifier + ":" + version;
+    }
+
+    private static Map<String, byte[]> scan(Path root) throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        if (!Files.isDirectory(root)) {
+            return entries;
+        }
+        Files.walkFileTree(
+                root,
+                new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        Path relative = root.relativize(file);
+                        String key = key(relative);
+                        if (key != null) {
+                            entries.put(
+                                    key, relative.toString().getBytes(StandardCharsets.UTF_8));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+        return entries;
+    }
+
+    /**
+     * Looks up an artifact in the index.
+     *
+     * @return the artifact file, an absent entry if the index is authoritative and does not
+     *     contain the artifact, or {@code null} if the index cannot answer the lookup
+     */
+    ResolutionCache.Entry get(Session session, ArtifactCoordinates coords) {
+        Loaded current = load(session);
+        if (current.index() == null) {
+            return null;
+        }
+        byte[] value = current.index().get(ResolutionCache.key(coords));
+        if (value != null) {
+            Path path = current.root().resolve(new String(value, StandardCharsets.UTF_8));
+            if (Files.exists(path)) {
+                return new ResolutionCache.Entry(path);
+            }
+        }
+        if (!current.authoritative()) {
+            return null;
+        }
+        Path path = current.root().resolve(path(coords));
+        if (Files.isRegularFile(path)) {
+            logger.debug("Artifact {} not indexed, but present at {}", coords, path);
+            return new ResolutionCache.Entry(path);
+        }
+        return new ResolutionCache.Entry(null);
+    }
+
+    /** Returns path of given artifact relative to repository root in Maven repository layout. */
+    static String path(ArtifactCoordinates coords) {
+        String version = coords.getVersionConstraint().toString();
+        String classifier = coords.getClassifier();
+        return coords.getGroupId().replace('.', '/')
+                + '/'
+                + coords.getArtifactId()
+                + '/'
+                + version
+                + '/'
+                + coords.getArtifactId()
+                + '-'
+                + version
+                + (classifier == null || classifier.isEmpty() ? "" : "-" + classifier)
+                + '.'
+                + coords.getExtension();
+    }
+}
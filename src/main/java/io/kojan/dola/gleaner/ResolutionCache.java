@@ -0,0 +1,223 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.api.ArtifactCoordinates;
+import org.apache.maven.api.RemoteRepository;
+import org.apache.maven.api.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optional persistent cache of artifact resolution results, enabled by setting {@code
+ * dola.gleaner.resolutionCache} to a file path.
+ *
+ * <p>The cache is bound to a fingerprint of the repository setup (local repository path and
+ * modification time, remote repositories and the optional {@code
+ * dola.gleaner.resolutionCache.fingerprint} value, which can be used to pass a checksum of the
+ * system repository contents); results recorded under a different fingerprint are ignored. Found
+ * artifacts are always recorded, and are used as long as their files exist. Missing artifacts are
+ * recorded and used only when an explicit fingerprint is given, as the modification time of the
+ * local repository does not change when an artifact is installed into an existing directory.
+ * Results of resolution from repositories other than those of the session are keyed by these
+ * repositories. New results are merged into the file at the end of the run.
+ */
+@Named
+@Singleton
+public class ResolutionCache {
+
+    private static final byte[] ABSENT = new byte[0];
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Inject private Configuration configuration;
+
+    private final Map<String, byte[]> added = new ConcurrentHashMap<>();
+
+    private volatile Session loadedSession;
+    private volatile Path path;
+    private long fingerprint;
+    private boolean explicitFingerprint;
+    private volatile MappedHashIndex index;
+
+    /** Result of a cache lookup; a {@code null} path means that the artifact is absent. */
+    record Entry(Path path) {}
+
+    private long fingerprint(Session session) {
+        StringBuilder sb = new StringBuilder();
+        Path localRepo = session.getLocalRepository().getPath();
+        sb.append(localRepo.toAbsolutePath()).append('\n');
+        try {
+            sb.append(Files.getLastModifiedTime(localRepo).toMillis()).append('\n');
+        } catch (IOException e) {
+            sb.append("-\n");
+        }
+        for (RemoteRepository repository : session.getRemoteRepositories()) {
+            sb.append(repository.getId()).append('=').append(repository.getUrl()).append('\n');
+        }
+        sb.append(configuration.get("dola.gleaner.resolutionCache.fingerprint", ""));
+        long h = 1125899906842597L;
+        for (byte b : sb.toString().getBytes(StandardCharsets.UTF_8)) {
+            h = 31 * h + b;
+        }
+        return h;
+    }
+
+    static String key(ArtifactCoordinates coords) {
+        return coords.getGroupId()
+                + ':'
+                + coords.getArtifactId()
+                + ':'
+                + coords.getExtension()
+                + ':'
+                + coords.getClassifier()
+                + ':'
+                + coords.getVersionConstraint();
+    }
+
+    /**
+     * Returns cache key of given artifact resolved from given repositories. The repositories are
+     * part of the key only if they differ from remote repositories of the session, which are
+     * covered by the fingerprint.
+     */
+    private static String key(
+            Session session, ArtifactCoordinates coords, List<RemoteRepository> repositories) {
+        String key = key(coords);
+        String repos = repositories(repositories);
+        if (repos.equals(repositories(session.getRemoteRepositories()))) {
+            return key;
+        }
+        return key + '@' + repos;
+    }
+
+    private static String repositories(List<RemoteRepository> repositories) {
+        StringBuilder sb = new StringBuilder();
+        for (RemoteRepository repository : repositories) {
+            sb.append(repository.getId()).append('=').append(repository.getUrl()).append(';');
+        }
+        return sb.toString();
+    }
+
+    private boolean load(Session session) {
+        if (session != loadedSession) {
+            reload(session);
+        }
+        return path != null;
+    }
+
+    private synchronized void reload(Session session) {
+        String prop = configuration.get("dola.gleaner.resolutionCache");
+        if (prop == null) {
+            flush();
+            path = null;
+            loadedSession = session;
+            return;
+        }
+        long fp = fingerprint(session);
+        explicitFingerprint = configuration.get("dola.gleaner.resolutionCache.fingerprint") != null;
+        if (Path.of(prop).equals(path) && fp == fingerprint) {
+            loadedSession = session;
+            return;
+        }
+        flush();
+        path = Path.of(prop);
+        fingerprint = fp;
+        try {
+            index = MappedHashIndex.open(path);
+            if (index != null && index.fingerprint() != fingerprint) {
+                logger.debug("Ignoring resolution cache {} with stale fingerprint", path);
+                index = null;
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to read resolution cache {}", path, e);
+            index = null;
+        }
+        loadedSession = session;
+    }
+
+    /**
+     * Looks up a cached resolution result.
+     *
+     * @return cached result, or {@code null} if the result is not known
+     */
+    Entry get(
+            Session session, ArtifactCoordinates coords, List<RemoteRepository> repositories) {
+        if (!load(session)) {
+            return null;
+        }
+        String key = key(session, coords, repositories);
+        byte[] value = added.get(key);
+        if (value == null && index != null) {
+            value = index.get(key);
+        }
+        if (value == null) {
+            return null;
+        }
+        if (value.length == 0) {
+            return explicitFingerprint ? new Entry(null) : null;
+        }
+        Path artifactPath = Path.of(new String(value, StandardCharsets.UTF_8));
+        return Files.exists(artifactPath) ? new Entry(artifactPath) : null;
+    }
+
+    void put(
+            Session session,
+            ArtifactCoordinates coords,
+            List<RemoteRepository> repositories,
+            Path artifactPath) {
+        if (!load(session)) {
+            return;
+        }
+        String key = key(session, coords, repositories);
+        if (artifactPath != null) {
+            added.put(key, artifactPath.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (explicitFingerprint) {
+            added.put(key, ABSENT);
+        }
+    }
+
+    /** Merges results recorded during this run into the cache file. */
+    synchronized void flush() {
+        if (path == null || added.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, byte[]> entries = new LinkedHashMap<>();
+            MappedHashIndex current = MappedHashIndex.open(path);
+            if (current != null && current.fingerprint() == fingerprint) {
+                entries.putAll(current.entries());
+            }
+            entries.putAll(added);
+            MappedHashIndex.write(path, fingerprint, entries);
+            logger.debug("Stored {} resolution results in {}", entries.size(), path);
+            added.clear();
+            index = MappedHashIndex.open(path);
+        } catch (IOException e) {
+            logger.warn("Unable to write resolution cache {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.maven.api.ArtifactCoordinates;
+import org.apache.maven.api.DownloadedArtifact;
+import org.apache.maven.api.RemoteRepository;
+import org.apache.maven.api.Session;
+import org.apache.maven.api.services.ArtifactResolverException;
+import org.apache.maven.api.services.VersionRangeResolverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Named
+@Singleton
+public class ResolutionEngine {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Inject private ResolutionCache resolutionCache;
+
+    @Inject private Metrics metrics;
+
+    @Inject private RepositoryIndex repositoryIndex;
+
+    private final LongAdder resolverCalls = new LongAdder();
+
+    static void checkVersionRange(ArtifactCoordinates coords) {
+        if (coords.getVersionConstraint().getVersionRange() != null) {
+            throw new RuntimeException("Version ranges are not supported: " + coords);
+        }
+    }
+
+    Path tryResolve(Session session, ArtifactCoordinates coords) {
+        return tryResolve(session, coords, session.getRemoteRepositories());
+    }
+
+    Path tryResolve(
+            Session session, ArtifactCoordinates coords, List<RemoteRepository> repositories) {
+        checkVersionRange(coords);
+        Events.Resolution event = new Events.Resolution();
+        event.begin();
+        ResolutionCache.Entry indexed = repositoryIndex.get(session, coords);
+        if (indexed != null) {
+            logger.debug("Indexed resolution result for {}: {}", coords, indexed.path());
+            event.complete(coords, indexed.path() != null ? "indexed" : "indexed-absent");
+            return indexed.path();
+        }
+        ResolutionCache.Entry cached = resolutionCache.get(session, coords, repositories);
+        if (cached != null) {
+            logger.debug("Cached resolution result for {}: {}", coords, cached.path());
+            event.complete(coords, cached.path() != null ? "cached" : "cached-absent");
+            return cached.path();
+        }
+        Path path;
+        resolverCalls.increment();
+        long start = metrics.start();
+        try {
+            DownloadedArtifact resolved = session.resolveArtifact(coords, repositories);
+            path = resolved.getPath();
+            logger.debug("Dependency found at {}", path);
+        } catch (VersionRangeResolverException | ArtifactResolverException e) {
+            path = null;
+        } finally {
+            metrics.record("resolveArtifact", coords, start);
+        }
+        resolutionCache.put(session, coords, repositories, path);
+        event.complete(coords, path != null ? "found" : "absent");
+        return path;
+    }
+
+    private Void resolveDep(Session session, Dep dep) {
+        ArtifactCoordinates coords = dep.coords;
+        logger.debug("Resolving dep {}", coords);
+        Path path;
+        Events.setModule(dep.firstSource());
+        try {
+            path = tryResolve(session, coords);
+        } finally {
+            Events.setModule(null);
+        }
+        if (path != null) {
+            dep.resolved = true;
+            logger.debug("Dependency {} found at {}", coords, path);
+        } else {
+            dep.resolved = false;
+            logger.debug("Dependency {} ABSENT", coords);
+        }
+        return null;
+    }
+
+    /** Returns the number of artifact resolution requests made to Maven since the last reset. */
+    long getResolverCalls() {
+        return resolverCalls.sum();
+    }
+
+    void resetCounters() {
+        resolverCalls.reset();
+    }
+
+    /**
+     * Resolves given dependencies, using at most {@code threads} concurrent lookups, and records
+     * the outcome in {@link Dep#resolved}.
+     */
+    void resolveAll(Session session, List<Dep> deps, int threads) {
+        Parallel.map(deps, threads, dep -> resolveDep(session, dep));
+    }
+}
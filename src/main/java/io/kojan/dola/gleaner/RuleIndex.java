@@ -0,0 +1,143 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Ordered list of regular expression rules, each associated with a value, matched against
+ * dependency keys. The first rule whose pattern matches the whole key wins.
+ *
+ * <p>Patterns that are plain literals are looked up by exact key, and patterns consisting of a
+ * literal followed by {@code .*} are looked up by key prefix. Only the remaining patterns are
+ * compiled and tried one by one, and only those preceding the best indexed match. Results are
+ * memoized per key.
+ */
+final class RuleIndex<V> {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final List<V> values;
+    private final Map<String, Integer> exact = new HashMap<>();
+    private final Map<String, Integer> prefixes = new HashMap<>();
+    private final int[] prefixLengths;
+    private final int[] regexRules;
+    private final Pattern[] regexes;
+    private final Map<CoordKey, Integer> memo = new ConcurrentHashMap<>();
+
+    RuleIndex(List<String> patterns, List<V> values) {
+        this.values = List.copyOf(values);
+        List<Integer> regexRuleList = new ArrayList<>();
+        List<Pattern> regexList = new ArrayList<>();
+        TreeSet<Integer> lengths = new TreeSet<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            String pattern = patterns.get(i);
+            String literal = literal(pattern);
+            if (literal != null) {
+                exact.putIfAbsent(literal, i);
+                continue;
+            }
+            if (pattern.endsWith(".*")) {
+                String prefix = literal(pattern.substring(0, pattern.length() - 2));
+                if (prefix != null) {
+                    prefixes.putIfAbsent(prefix, i);
+                    lengths.add(prefix.length());
+                    continue;
+                }
+            }
+            regexRuleList.add(i);
+            regexList.add(Pattern.compile(pattern));
+        }
+        prefixLengths = lengths.stream().mapToInt(Integer::intValue).toArray();
+        regexRules = regexRuleList.stream().mapToInt(Integer::intValue).toArray();
+        regexes = regexList.toArray(new Pattern[0]);
+    }
+
+    /**
+     * Returns the literal string matched by given regular expression, or {@code null} if the
+     * expression contains any construct other than plain characters and escaped punctuation.
+     */
+    static String literal(String pattern) {
+        StringBuilder sb = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                if (++i == pattern.length()) {
+                    return null;
+                }
+                c = pattern.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    return null;
+                }
+            } else if (".[]{}()*+?^$|".indexOf(c) >= 0) {
+                return null;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private int firstMatch(String key) {
+        int best = exact.getOrDefault(key, NO_MATCH);
+        for (int length : prefixLengths) {
+            if (length > key.length()) {
+                break;
+            }
+            int rule = prefixes.getOrDefault(key.substring(0, length), NO_MATCH);
+            best = Math.min(best, rule);
+        }
+        for (int i = 0; i < regexRules.length && regexRules[i] < best; i++) {
+            if (regexes[i].matcher(key).matches()) {
+                return regexRules[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns value of the first rule matching given key, in its string form.
+     *
+     * @return value of the matching rule, or {@code null} if no rule matches
+     */
+    V match(CoordKey key) {
+        int rule = memo.computeIfAbsent(key, k -> firstMatch(k.toString()));
+        return rule != NO_MATCH ? values.get(rule) : null;
+    }
+
+    /**
+     * Reads rules from a file with one rule per line. Empty lines and lines starting with {@code
+     * #} are ignored.
+     */
+    static List<String> readRuleFile(Path path) {
+        try {
+            return Files.readAllLines(path).stream()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read rule file " + path, e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.maven.api.model.InputLocation;
+import org.apache.maven.api.model.InputLocationTracker;
+import org.apache.maven.api.model.InputSource;
+
+/**
+ * Table of interned model source locations. Declaration locations are recorded as (source ID,
+ * line number) pairs packed into a single {@code long} and formatted only when needed.
+ */
+final class SourceTable {
+
+    static final long UNKNOWN_LOCATION = Long.MIN_VALUE;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] urls = new String[16];
+    private int size;
+
+    private int id(String location) {
+        String key = location != null ? location : "";
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(key);
+            if (id != null) {
+                return id;
+            }
+            String url = location != null ? location.replaceAll("^file://", "") : "UNKNOWN";
+            String[] table = urls;
+            if (size == table.length) {
+                table = Arrays.copyOf(table, size * 2);
+            }
+            table[size] = url;
+            urls = table;
+            ids.put(key, size);
+            return size++;
+        }
+    }
+
+    long location(InputLocationTracker obj) {
+        InputLocation location = obj.getLocation("");
+        if (location == null) {
+            return UNKNOWN_LOCATION;
+        }
+        InputSource source = location.getSource();
+        int sourceId = id(source.getLocation());
+        return (long) sourceId << 32 | (location.getLineNumber() & 0xFFFFFFFFL);
+    }
+
+    /** Returns location for given URL, which must have been obtained from {@link #url}. */
+    long location(String url, int line) {
+        if (url == null) {
+            return UNKNOWN_LOCATION;
+        }
+        return (long) id(url) << 32 | (line & 0xFFFFFFFFL);
+    }
+
+    /** Returns source URL of given location, or {@code null} for unknown location. */
+    String url(long location) {
+        return location != UNKNOWN_LOCATION ? urls[(int) (location >>> 32)] : null;
+    }
+
+    static int line(long location) {
+        return (int) location;
+    }
+
+    String format(long location) {
+        if (location == UNKNOWN_LOCATION) {
+            return "UNKNOWN-location";
+        }
+        return urls[(int) (location >>> 32)] + " line " + (int) location;
+    }
+
+    synchronized void clear() {
+        ids.clear();
+        urls = new String[16];
+        size = 0;
+    }
+}
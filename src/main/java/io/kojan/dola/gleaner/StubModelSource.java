@@ -16,43 +16,81 @@
 package io.kojan.dola.gleaner;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import javax.xml.stream.XMLStreamException;
-import org.apache.maven.api.model.Model;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.maven.api.services.ModelSource;
 import org.apache.maven.api.services.Source;
-import org.apache.maven.model.v4.MavenStaxWriter;
 
 class StubModelSource implements ModelSource {
 
-    private final String modelString;
+    private static final byte[] HEADER =
+            ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                            + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                            + "  <modelVersion>4.0.0</modelVersion>\n")
+                    .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FOOTER = "</project>\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final Map<String, byte[]> cache = new ConcurrentHashMap<>();
+
+    private final byte[] model;
 
     public StubModelSource(String groupId, String artifactId, String version, String packaging) {
-        Model model =
-                Model.newBuilder()
-                        .modelVersion("4.0.0")
-                        .groupId(groupId)
-                        .artifactId(artifactId)
-                        .version(version)
-                        .packaging(packaging)
-                        .build();
-        MavenStaxWriter pomWriter = new MavenStaxWriter();
-        StringWriter sw = new StringWriter();
-        try {
-            pomWriter.write(sw, model);
-        } catch (IOException | XMLStreamException e) {
-            throw new RuntimeException(e);
+        Events.Stub event = new Events.Stub();
+        event.begin();
+        String key = groupId + ':' + artifactId + ':' + version + ':' + packaging;
+        byte[] cached = cache.get(key);
+        model =
+                cached != null
+                        ? cached
+                        : cache.computeIfAbsent(
+                                key, k -> render(groupId, artifactId, version, packaging));
+        event.complete("pom", key, cached != null ? "cached" : "rendered");
+    }
+
+    /** Drops all rendered stubs, so that they do not accumulate across sessions. */
+    static void clearCache() {
+        cache.clear();
+    }
+
+    private static void element(ByteArrayOutputStream bos, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("  <").append(name).append('>');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                default -> sb.append(c);
+            }
         }
-        modelString = sw.toString();
+        sb.append("</").append(name).append(">\n");
+        bos.writeBytes(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] render(
+            String groupId, String artifactId, String version, String packaging) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        bos.writeBytes(HEADER);
+        element(bos, "groupId", groupId);
+        element(bos, "artifactId", artifactId);
+        element(bos, "version", version);
+        element(bos, "packaging", packaging);
+        bos.writeBytes(FOOTER);
+        return bos.toByteArray();
     }
 
     @Override
     public InputStream openStream() throws IOException {
-        return new ByteArrayInputStream(modelString.getBytes(StandardCharsets.UTF_8));
+        return new ByteArrayInputStream(model);
     }
 
     @Override
@@ -0,0 +1,82 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A combination of build conditionals evaluated in matrix mode: profiles activated or deactivated
+ * and user properties defined on top of those of the build.
+ */
+record Variant(
+        String name,
+        List<String> activeProfiles,
+        List<String> inactiveProfiles,
+        Properties userProperties) {
+
+    /**
+     * Parses value of {@code dola.gleaner.matrix}. Variants are separated by semicolons, each
+     * consisting of a name, optionally followed by a colon and options separated by whitespace:
+     * {@code -P} with a comma-separated list of profiles, prefixed with {@code !} or {@code -} to
+     * deactivate them, and {@code -D} with a property definition, for example {@code
+     * default;notests:-P!tests -Dmaven.test.skip=true}.
+     */
+    static List<Variant> parseMatrix(String value) {
+        List<Variant> variants = new ArrayList<>();
+        if (value == null) {
+            return variants;
+        }
+        for (String spec : value.split(";")) {
+            int colon = spec.indexOf(':');
+            String name = (colon >= 0 ? spec.substring(0, colon) : spec).trim();
+            String options = colon >= 0 ? spec.substring(colon + 1).trim() : "";
+            if (name.isEmpty()) {
+                if (options.isEmpty()) {
+                    continue;
+                }
+                throw new RuntimeException("Invalid variant, name is missing: " + spec);
+            }
+            Variant variant =
+                    new Variant(name, new ArrayList<>(), new ArrayList<>(), new Properties());
+            for (String option : options.split("\\s+")) {
+                if (option.startsWith("-P")) {
+                    for (String id : option.substring(2).split(",")) {
+                        if (id.startsWith("!") || id.startsWith("-")) {
+                            variant.inactiveProfiles.add(id.substring(1));
+                        } else if (!id.isEmpty()) {
+                            variant.activeProfiles.add(id);
+                        }
+                    }
+                } else if (option.startsWith("-D")) {
+                    String property = option.substring(2);
+                    int eq = property.indexOf('=');
+                    if (eq >= 0) {
+                        variant.userProperties.setProperty(
+                                property.substring(0, eq), property.substring(eq + 1));
+                    } else {
+                        variant.userProperties.setProperty(property, "true");
+                    }
+                } else if (!option.isEmpty()) {
+                    throw new RuntimeException("Invalid option of variant " + name + ": " + option);
+                }
+            }
+            variants.add(variant);
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,60 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import java.lang.reflect.Field;
+import java.util.Properties;
+import javax.inject.Inject;
+
+/** Wires components for tests without a dependency injection container. */
+final class Components {
+
+    private Components() {}
+
+    /**
+     * Sets fields of given component annotated with {@link Inject} to the dependencies of
+     * matching type.
+     */
+    static <T> T inject(T component, Object... dependencies) {
+        for (Field field : component.getClass().getDeclaredFields()) {
+            if (!field.isAnnotationPresent(Inject.class)) {
+                continue;
+            }
+            for (Object dependency : dependencies) {
+                if (field.getType().isInstance(dependency)) {
+                    try {
+                        field.setAccessible(true);
+                        field.set(component, dependency);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return component;
+    }
+
+    /** Returns configuration with given keys and values, which alternate. */
+    static Configuration configuration(String... keysAndValues) {
+        Properties props = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            props.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        Configuration configuration = new Configuration();
+        configuration.load(props);
+        return configuration;
+    }
+}
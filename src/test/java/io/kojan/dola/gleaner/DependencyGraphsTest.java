@@ -0,0 +1,157 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.apache.maven.api.ArtifactCoordinates;
+import org.apache.maven.api.Dependency;
+import org.apache.maven.api.Node;
+import org.apache.maven.api.PathScope;
+import org.apache.maven.api.Session;
+import org.junit.jupiter.api.Test;
+
+class DependencyGraphsTest {
+
+    private final DependencyGraphs dependencyGraphs =
+            Components.inject(new DependencyGraphs(), new Metrics());
+
+    private final AtomicInteger collections = new AtomicInteger();
+
+    private static <T> T proxy(Class<T> type, Object... values) {
+        return type.cast(
+                Proxy.newProxyInstance(
+                        DependencyGraphsTest.class.getClassLoader(),
+                        new Class<?>[] {type},
+                        (proxy, method, args) -> {
+                            for (int i = 0; i < values.length; i += 2) {
+                                if (method.getName().equals(values[i])) {
+                                    return values[i + 1];
+                                }
+                            }
+                            if (method.getName().equals("toString")) {
+                                return type.getSimpleName();
+                            }
+                            throw new UnsupportedOperationException(method.getName());
+                        }));
+    }
+
+    private static final ArtifactCoordinates ROOT =
+            proxy(
+                    ArtifactCoordinates.class,
+                    "getGroupId",
+                    "org.example",
+                    "getArtifactId",
+                    "root",
+                    "getExtension",
+                    "jar",
+                    "getClassifier",
+                    "",
+                    "getVersionConstraint",
+                    null);
+
+    private static final ArtifactCoordinates CHILD = proxy(ArtifactCoordinates.class);
+
+    /** Returns a graph of the root with a single child. */
+    private static Node graph() {
+        Node child =
+                proxy(
+                        Node.class,
+                        "getDependency",
+                        proxy(Dependency.class, "toCoordinates", CHILD));
+        Node[] root = new Node[1];
+        root[0] =
+                (Node)
+                        Proxy.newProxyInstance(
+                                DependencyGraphsTest.class.getClassLoader(),
+                                new Class<?>[] {Node.class},
+                                (proxy, method, args) -> {
+                                    if (method.getName().equals("stream")) {
+                                        return Stream.of(root[0], child);
+                                    }
+                                    throw new UnsupportedOperationException(method.getName());
+                                });
+        return root[0];
+    }
+
+    /** Returns a session whose graph collections fail with given throwables, then succeed. */
+    private Session session(Throwable... failures) {
+        return (Session)
+                Proxy.newProxyInstance(
+                        getClass().getClassLoader(),
+                        new Class<?>[] {Session.class},
+                        (proxy, method, args) -> {
+                            switch (method.getName()) {
+                                case "createDependencyCoordinates":
+                                    return null;
+                                case "collectDependencies":
+                                    int n = collections.getAndIncrement();
+                                    if (n < failures.length) {
+                                        throw failures[n];
+                                    }
+                                    return graph();
+                                default:
+                                    throw new UnsupportedOperationException(method.getName());
+                            }
+                        });
+    }
+
+    @Test
+    void graphIsCollectedOnce() {
+        Session session = session();
+        List<ArtifactCoordinates> graph =
+                dependencyGraphs.collect(session, ROOT, PathScope.MAIN_RUNTIME);
+        assertEquals(List.of(CHILD), graph);
+        assertSame(graph, dependencyGraphs.collect(session, ROOT, PathScope.MAIN_RUNTIME));
+        assertEquals(1, collections.get());
+        dependencyGraphs.collect(session, ROOT, PathScope.MAIN_COMPILE);
+        assertEquals(2, collections.get());
+        dependencyGraphs.clearCache();
+        dependencyGraphs.collect(session, ROOT, PathScope.MAIN_RUNTIME);
+        assertEquals(3, collections.get());
+    }
+
+    @Test
+    void failureIsPropagatedAndNotMemoized() {
+        IllegalStateException failure = new IllegalStateException("unreachable repository");
+        Session session = session(failure);
+        assertSame(
+                failure,
+                assertThrows(
+                        IllegalStateException.class,
+                        () -> dependencyGraphs.collect(session, ROOT, PathScope.MAIN_RUNTIME)));
+        assertEquals(
+                List.of(CHILD), dependencyGraphs.collect(session, ROOT, PathScope.MAIN_RUNTIME));
+        assertEquals(2, collections.get());
+    }
+
+    @Test
+    void errorIsPropagatedAndNotMemoized() {
+        Session session = session(new StackOverflowError());
+        assertThrows(
+                StackOverflowError.class,
+                () -> dependencyGraphs.collect(session, ROOT, PathScope.MAIN_RUNTIME));
+        assertEquals(
+                List.of(CHILD), dependencyGraphs.collect(session, ROOT, PathScope.MAIN_RUNTIME));
+        assertEquals(2, collections.get());
+    }
+}
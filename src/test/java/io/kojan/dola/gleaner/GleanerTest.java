@@ -0,0 +1,51 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+class GleanerTest {
+
+    private static MavenProject project(String artifactId) {
+        MavenProject project = new MavenProject();
+        project.setGroupId("org.example");
+        project.setArtifactId(artifactId);
+        project.setVersion("1.0");
+        return project;
+    }
+
+    @Test
+    void variantProjectsFollowSelectionAndOrderOfBuild() {
+        MavenProject a = project("a");
+        MavenProject b = project("b");
+        MavenProject c = project("c");
+        MavenProject rebuiltA = project("a");
+        MavenProject rebuiltB = project("b");
+        MavenProject rebuiltD = project("d");
+        Map<String, MavenProject> built =
+                Map.of(
+                        rebuiltA.getId(), rebuiltA,
+                        rebuiltB.getId(), rebuiltB,
+                        rebuiltD.getId(), rebuiltD);
+        // Project c is not built in the variant, d was not selected in the build
+        assertEquals(List.of(rebuiltB, rebuiltA), Gleaner.select(List.of(b, c, a), built));
+    }
+}
@@ -0,0 +1,100 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncrementalStateTest {
+
+    private static final IncrementalState.Contribution PLUGIN =
+            new IncrementalState.Contribution(
+                    "org.example", "example-maven-plugin", "jar", "", "1.0", false, null, 0);
+    private static final IncrementalState.Contribution DEPENDENCY =
+            new IncrementalState.Contribution(
+                    "org.example", "example-lib", "jar", "", "2.0", true, "file:pom.xml", 42);
+
+    @TempDir Path tempDir;
+
+    private final Collector collector = new Collector();
+
+    private Dep lookup(String artifactId, boolean resolved) {
+        Dep dep = collector.lookup("org.example", artifactId, "jar", "", "1.0");
+        dep.resolved = resolved;
+        return dep;
+    }
+
+    private void analyze(IncrementalState state, String id, String hash, boolean resolved) {
+        IncrementalState.Module module = state.analyze(id, hash);
+        module.plan.add(PLUGIN);
+        module.exec.add(DEPENDENCY);
+        module.lookups.add(lookup("example-maven-plugin", resolved));
+    }
+
+    @Test
+    void moduleIsReusedWhileItsHashIsUnchanged() {
+        Path path = tempDir.resolve("state.idx");
+        IncrementalState state = new IncrementalState(path);
+        analyze(state, "org.example:a:jar:1.0", "hash", true);
+        state.save();
+
+        IncrementalState.Module module =
+                new IncrementalState(path).reuse("org.example:a:jar:1.0", "hash");
+        assertNotNull(module);
+        assertEquals(Set.of(PLUGIN), module.plan);
+        assertEquals(Set.of(DEPENDENCY), module.exec);
+        assertNull(new IncrementalState(path).reuse("org.example:a:jar:1.0", "changed"));
+        assertNull(new IncrementalState(path).reuse("org.example:b:jar:1.0", "hash"));
+    }
+
+    @Test
+    void moduleWithUnresolvedLookupIsNotStored() {
+        Path path = tempDir.resolve("state.idx");
+        IncrementalState state = new IncrementalState(path);
+        analyze(state, "org.example:a:jar:1.0", "hash", true);
+        IncrementalState.Module stubbed = state.analyze("org.example:b:jar:1.0", "hash");
+        stubbed.exec.add(DEPENDENCY);
+        stubbed.lookups.add(lookup("missing-maven-plugin", false));
+        state.save();
+
+        IncrementalState loaded = new IncrementalState(path);
+        assertNotNull(loaded.reuse("org.example:a:jar:1.0", "hash"));
+        assertNull(loaded.reuse("org.example:b:jar:1.0", "hash"));
+    }
+
+    @Test
+    void onlyModulesOfTheLastRunAreStored() {
+        Path path = tempDir.resolve("state.idx");
+        IncrementalState first = new IncrementalState(path);
+        analyze(first, "org.example:a:jar:1.0", "hash", true);
+        analyze(first, "org.example:b:jar:1.0", "hash", true);
+        first.save();
+
+        IncrementalState second = new IncrementalState(path);
+        assertNotNull(second.reuse("org.example:a:jar:1.0", "hash"));
+        second.save();
+
+        IncrementalState third = new IncrementalState(path);
+        assertNotNull(third.reuse("org.example:a:jar:1.0", "hash"));
+        assertNull(third.reuse("org.example:b:jar:1.0", "hash"));
+    }
+}
@@ -0,0 +1,145 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.descriptor.DuplicateMojoDescriptorException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.junit.jupiter.api.Test;
+
+class MojoDescriptorCacheTest {
+
+    private final MojoDescriptorCache cache = new MojoDescriptorCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private static Plugin plugin() {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("org.apache.maven.plugins");
+        plugin.setArtifactId("maven-compiler-plugin");
+        plugin.setVersion("3.14.0");
+        return plugin;
+    }
+
+    private static Plugin plugin(String scope, String exclusion) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId("org.ow2.asm");
+        dependency.setArtifactId("asm");
+        dependency.setVersion("9.8");
+        dependency.setScope(scope);
+        if (exclusion != null) {
+            Exclusion ex = new Exclusion();
+            ex.setGroupId("org.example");
+            ex.setArtifactId(exclusion);
+            dependency.addExclusion(ex);
+        }
+        Plugin plugin = plugin();
+        plugin.addDependency(dependency);
+        return plugin;
+    }
+
+    /** Returns a loader of a descriptor with two goals, referring to given plugin. */
+    private Supplier<Optional<MojoDescriptor>> loader(Plugin plugin, String goal) {
+        return () -> {
+            loads.incrementAndGet();
+            PluginDescriptor pd = new PluginDescriptor();
+            pd.setGroupId(plugin.getGroupId());
+            pd.setArtifactId(plugin.getArtifactId());
+            pd.setVersion(plugin.getVersion());
+            pd.setPlugin(plugin);
+            MojoDescriptor result = null;
+            for (String name : List.of("compile", "testCompile")) {
+                MojoDescriptor md = new MojoDescriptor();
+                md.setGoal(name);
+                md.setDependencyResolutionRequired("compile");
+                md.setPluginDescriptor(pd);
+                try {
+                    pd.addMojo(md);
+                } catch (DuplicateMojoDescriptorException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (name.equals(goal)) {
+                    result = md;
+                }
+            }
+            return Optional.of(result);
+        };
+    }
+
+    private MojoDescriptor get(Plugin plugin, String goal) {
+        return cache.get(plugin, goal, List.of(), loader(plugin, goal)).orElseThrow();
+    }
+
+    @Test
+    void eachCallerGetsDescriptorOfItsOwnPlugin() {
+        Plugin first = plugin();
+        Plugin second = plugin();
+        MojoDescriptor a = get(first, "compile");
+        MojoDescriptor b = get(second, "compile");
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertSame(first, a.getPluginDescriptor().getPlugin());
+        assertSame(second, b.getPluginDescriptor().getPlugin());
+        assertNotSame(a, b);
+        assertNotSame(a.getPluginDescriptor(), b.getPluginDescriptor());
+        assertEquals("compile", b.getGoal());
+        assertEquals("compile", b.getDependencyResolutionRequired());
+        assertEquals(2, b.getPluginDescriptor().getMojos().size());
+        for (MojoDescriptor mojo : b.getPluginDescriptor().getMojos()) {
+            assertSame(b.getPluginDescriptor(), mojo.getPluginDescriptor());
+        }
+        assertTrue(b.getPluginDescriptor().getMojos().contains(b));
+    }
+
+    @Test
+    void pluginDependencyScopeAndExclusionsArePartOfKey() {
+        get(plugin("runtime", null), "compile");
+        get(plugin("runtime", null), "compile");
+        assertEquals(1, loads.get());
+        get(plugin("compile", null), "compile");
+        assertEquals(2, loads.get());
+        get(plugin("runtime", "excluded"), "compile");
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void failedLookupsAreForgotten() {
+        Plugin plugin = plugin();
+        Supplier<Optional<MojoDescriptor>> failing =
+                () -> {
+                    loads.incrementAndGet();
+                    return Optional.empty();
+                };
+        assertTrue(cache.get(plugin, "compile", List.of(), failing).isEmpty());
+        assertTrue(cache.get(plugin, "compile", List.of(), failing).isEmpty());
+        assertEquals(1, loads.get());
+        cache.removeFailures();
+        get(plugin, "compile");
+        assertEquals(2, loads.get());
+    }
+}
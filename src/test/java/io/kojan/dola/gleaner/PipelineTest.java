@@ -0,0 +1,134 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.maven.api.Session;
+import org.junit.jupiter.api.Test;
+
+class PipelineTest {
+
+    /** Resolves every dependency, except those whose artifact ID starts with "missing". */
+    private static final class FakeResolutionEngine extends ResolutionEngine {
+        @Override
+        void resolveAll(Session session, List<Dep> deps, int threads) {
+            for (Dep dep : deps) {
+                dep.resolved = !dep.artifactId.startsWith("missing");
+            }
+        }
+    }
+
+    private final Collector collector = new Collector();
+    private final List<String> runs = Collections.synchronizedList(new ArrayList<>());
+
+    private Dep lookup(String artifactId) {
+        return collector.lookup("org.example", artifactId, "jar", "", "1.0");
+    }
+
+    /** Returns a stage that records its runs and looks up given artifacts of given modules. */
+    private Pipeline.Stage<String> stage(String phase, Map<String, String> lookups) {
+        return new Pipeline.Stage<>(
+                phase,
+                true,
+                module -> {
+                    runs.add(module + ":" + phase);
+                    lookup(module + "-" + phase);
+                    String artifactId = lookups.get(module);
+                    if (artifactId != null) {
+                        lookup(artifactId);
+                    }
+                });
+    }
+
+    private Pipeline<String> pipeline(
+            boolean continueOnMissing,
+            Map<String, String> modelLookups,
+            Map<String, String> planLookups) {
+        return new Pipeline<>(
+                collector,
+                new FakeResolutionEngine(),
+                null,
+                continueOnMissing,
+                List.of(
+                        stage("model", modelLookups),
+                        stage("plan", planLookups),
+                        stage("exec", Map.of())));
+    }
+
+    /**
+     * Makes dependency with given artifact ID unresolved as soon as it is looked up, so that the
+     * stage looking it up fails before the next stage of any module is scheduled.
+     */
+    private void knownToBeMissing(String artifactId) {
+        lookup(artifactId).resolved = false;
+        collector.restore(Map.of());
+    }
+
+    @Test
+    void noModuleStartsStageAfterFailedOne() {
+        knownToBeMissing("missing");
+        // With one stage thread, modules advance in turns: a, b, a, b...
+        pipeline(false, Map.of(), Map.of("a", "missing")).run(List.of("a", "b"), 1, 1);
+        assertEquals(Set.of("a:model", "b:model", "a:plan", "b:plan"), Set.copyOf(runs));
+        assertFalse(lookup("missing").resolved);
+        assertEquals("plan", lookup("missing").phase);
+    }
+
+    @Test
+    void allStagesRunWhenMissingDependenciesAreTolerated() {
+        knownToBeMissing("missing");
+        pipeline(true, Map.of(), Map.of("a", "missing")).run(List.of("a", "b"), 1, 1);
+        assertEquals(6, runs.size());
+    }
+
+    /** Runs a pipeline in which modules look up a shared dependency in different stages. */
+    private List<List<String>> discovered() {
+        Pipeline<String> pipeline =
+                pipeline(false, Map.of("b", "shared"), Map.of("a", "shared", "c", "shared"));
+        pipeline.run(List.of("a", "b", "c"), 4, 4);
+        List<List<String>> ids = new ArrayList<>();
+        for (int i = 0; i < pipeline.stageCount(); i++) {
+            ids.add(pipeline.discoveredUpTo(i).stream().map(dep -> dep.id).toList());
+        }
+        return ids;
+    }
+
+    @Test
+    void dependenciesAreDiscoveredInEarliestStage() {
+        List<List<String>> first = discovered();
+        assertTrue(first.get(0).contains(lookup("shared").id));
+        assertEquals("model", lookup("shared").phase);
+        assertEquals(List.of(4, 7, 10), first.stream().map(List::size).toList());
+        for (List<String> ids : first) {
+            assertEquals(ids.stream().sorted().toList(), ids);
+        }
+        for (Dep dep : collector.sortedDeps()) {
+            assertTrue(dep.resolved);
+        }
+
+        collector.reset();
+        runs.clear();
+        assertEquals(first, discovered());
+    }
+}
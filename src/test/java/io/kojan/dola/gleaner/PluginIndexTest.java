@@ -0,0 +1,141 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.descriptor.DuplicateMojoDescriptorException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PluginIndexTest {
+
+    @TempDir Path tempDir;
+
+    private Path jar;
+    private Path indexFile;
+    private Plugin plugin;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jar = tempDir.resolve("plugin.jar");
+        Files.writeString(jar, "first");
+        indexFile = tempDir.resolve("plugins.idx");
+        plugin = new Plugin();
+        plugin.setGroupId("org.example");
+        plugin.setArtifactId("example-maven-plugin");
+        plugin.setVersion("1.0");
+    }
+
+    private PluginIndex pluginIndex() {
+        RepositorySystem repositorySystem =
+                (RepositorySystem)
+                        Proxy.newProxyInstance(
+                                getClass().getClassLoader(),
+                                new Class<?>[] {RepositorySystem.class},
+                                (proxy, method, args) -> {
+                                    if (!method.getName().equals("resolveArtifact")) {
+                                        throw new UnsupportedOperationException(method.getName());
+                                    }
+                                    ArtifactRequest request = (ArtifactRequest) args[1];
+                                    return new ArtifactResult(request)
+                                            .setArtifact(
+                                                    request.getArtifact().setFile(jar.toFile()));
+                                });
+        return Components.inject(
+                new PluginIndex(),
+                repositorySystem,
+                Components.configuration("dola.gleaner.pluginIndex", indexFile.toString()));
+    }
+
+    private MojoDescriptor loadedMojo() throws DuplicateMojoDescriptorException {
+        Artifact artifact =
+                (Artifact)
+                        Proxy.newProxyInstance(
+                                getClass().getClassLoader(),
+                                new Class<?>[] {Artifact.class},
+                                (proxy, method, args) -> {
+                                    if (!method.getName().equals("getFile")) {
+                                        throw new UnsupportedOperationException(method.getName());
+                                    }
+                                    return jar.toFile();
+                                });
+        PluginDescriptor pd = new PluginDescriptor();
+        pd.setGroupId(plugin.getGroupId());
+        pd.setArtifactId(plugin.getArtifactId());
+        pd.setVersion(plugin.getVersion());
+        pd.setGoalPrefix("example");
+        pd.setPluginArtifact(artifact);
+        pd.setPlugin(plugin);
+        MojoDescriptor md = new MojoDescriptor();
+        md.setGoal("generate");
+        md.setPhase("generate-sources");
+        md.setDependencyResolutionRequired("compile");
+        md.setPluginDescriptor(pd);
+        pd.addMojo(md);
+        return md;
+    }
+
+    @Test
+    void indexedGoalsAreAnsweredAcrossRuns() throws Exception {
+        PluginIndex first = pluginIndex();
+        assertNull(first.get(plugin, "generate", List.of(), null));
+        first.put(plugin, loadedMojo());
+        first.flush();
+
+        MojoDescriptor mojo = pluginIndex().get(plugin, "generate", List.of(), null);
+        assertNotNull(mojo);
+        assertEquals("generate-sources", mojo.getPhase());
+        assertEquals("compile", mojo.getDependencyResolutionRequired());
+        assertEquals("example", mojo.getPluginDescriptor().getGoalPrefix());
+        assertSame(plugin, mojo.getPluginDescriptor().getPlugin());
+        assertNull(pluginIndex().get(plugin, "other", List.of(), null));
+    }
+
+    @Test
+    void checksumIsComputedAgainOnlyWhenJarChanges() throws Exception {
+        PluginIndex index = pluginIndex();
+        index.put(plugin, loadedMojo());
+        FileTime modified = Files.getLastModifiedTime(jar);
+        assertNotNull(index.get(plugin, "generate", List.of(), null));
+
+        // Same modification time: the memoized checksum is used
+        Files.writeString(jar, "second");
+        Files.setLastModifiedTime(jar, modified);
+        assertNotNull(index.get(plugin, "generate", List.of(), null));
+
+        // A rebuilt JAR no longer matches the indexed checksum
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(modified.toMillis() + 1000));
+        assertNull(index.get(plugin, "generate", List.of(), null));
+    }
+}
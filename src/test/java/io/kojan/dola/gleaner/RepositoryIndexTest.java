@@ -0,0 +1,151 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import org.apache.maven.api.ArtifactCoordinates;
+import org.apache.maven.api.Session;
+import org.apache.maven.api.VersionConstraint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RepositoryIndexTest {
+
+    @TempDir Path tempDir;
+
+    private Path repository;
+    private Path indexFile;
+    private final Configuration configuration = new Configuration();
+    private final RepositoryIndex repositoryIndex =
+            Components.inject(new RepositoryIndex(), configuration);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repository = tempDir.resolve("repository");
+        indexFile = tempDir.resolve("repository.idx");
+        install("present");
+    }
+
+    private Path install(String artifactId) throws IOException {
+        Path file =
+                repository.resolve(
+                        "org/example/" + artifactId + "/1.0/" + artifactId + "-1.0.jar");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, artifactId);
+        return file;
+    }
+
+    private void configure(String fingerprint, boolean authoritative) {
+        Properties props = new Properties();
+        props.setProperty("dola.gleaner.repositoryIndex", indexFile.toString());
+        props.setProperty("dola.gleaner.repositoryIndex.root", repository.toString());
+        props.setProperty("dola.gleaner.repositoryIndex.fingerprint", fingerprint);
+        props.setProperty(
+                "dola.gleaner.repositoryIndex.authoritative", Boolean.toString(authoritative));
+        configuration.load(props);
+    }
+
+    private static <T> T proxy(Class<T> type, String toString, String... values) {
+        return type.cast(
+                Proxy.newProxyInstance(
+                        RepositoryIndexTest.class.getClassLoader(),
+                        new Class<?>[] {type},
+                        (proxy, method, args) -> {
+                            if (method.getName().equals("toString")) {
+                                return toString;
+                            }
+                            for (int i = 0; i < values.length; i += 2) {
+                                if (method.getName().equals(values[i])) {
+                                    return values[i + 1];
+                                }
+                            }
+                            if (method.getName().equals("getVersionConstraint")) {
+                                return proxy(VersionConstraint.class, "1.0");
+                            }
+                            throw new UnsupportedOperationException(method.getName());
+                        }));
+    }
+
+    /** Returns a new session, which makes the index reload its configuration. */
+    private static Session session() {
+        return proxy(Session.class, "session");
+    }
+
+    private static ArtifactCoordinates coords(String artifactId) {
+        return proxy(
+                ArtifactCoordinates.class,
+                "org.example:" + artifactId + ":1.0",
+                "getGroupId",
+                "org.example",
+                "getArtifactId",
+                artifactId,
+                "getExtension",
+                "jar",
+                "getClassifier",
+                "");
+    }
+
+    private Path get(String artifactId) {
+        ResolutionCache.Entry entry = repositoryIndex.get(session(), coords(artifactId));
+        return entry != null ? entry.path() : null;
+    }
+
+    @Test
+    void indexIsRebuiltWhenFingerprintChanges() throws Exception {
+        configure("1", false);
+        Path present = repository.resolve("org/example/present/1.0/present-1.0.jar");
+        assertEquals(present, get("present"));
+        long fingerprint = MappedHashIndex.open(indexFile).fingerprint();
+
+        Path added = install("added");
+        assertNull(get("added"));
+        // A new run with the same fingerprint reads the stored index
+        RepositoryIndex nextRun = Components.inject(new RepositoryIndex(), configuration);
+        assertNull(nextRun.get(session(), coords("added")));
+
+        configure("2", false);
+        assertEquals(added, get("added"));
+        assertNotEquals(fingerprint, MappedHashIndex.open(indexFile).fingerprint());
+    }
+
+    @Test
+    void authoritativeMissIsCheckedAgainstRepository() throws Exception {
+        configure("1", true);
+        assertNotNull(get("present"));
+        ResolutionCache.Entry absent = repositoryIndex.get(session(), coords("absent"));
+        assertNotNull(absent);
+        assertNull(absent.path());
+
+        Path added = install("added");
+        assertEquals(added, get("added"));
+    }
+
+    @Test
+    void disabledIndexDoesNotAnswer() {
+        configuration.load(new Properties());
+        assertNull(repositoryIndex.get(session(), coords("present")));
+    }
+}
@@ -0,0 +1,51 @@
+/*-
+ * Copyright (c) 2025 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.kojan.dola.gleaner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class VariantTest {
+
+    @Test
+    void variantsAreParsedWithProfilesAndProperties() {
+        List<Variant> variants =
+                Variant.parseMatrix(
+                        "default; notests:-P!tests,extra -Dmaven.test.skip=true -Dquick;");
+        assertEquals(2, variants.size());
+        Variant first = variants.get(0);
+        assertEquals("default", first.name());
+        assertEquals(List.of(), first.activeProfiles());
+        assertEquals(List.of(), first.inactiveProfiles());
+        assertEquals(Map.of(), first.userProperties());
+        Variant second = variants.get(1);
+        assertEquals("notests", second.name());
+        assertEquals(List.of("extra"), second.activeProfiles());
+        assertEquals(List.of("tests"), second.inactiveProfiles());
+        assertEquals(
+                Map.of("maven.test.skip", "true", "quick", "true"), second.userProperties());
+    }
+
+    @Test
+    void invalidVariantsAreRejected() {
+        assertThrows(RuntimeException.class, () -> Variant.parseMatrix(":-Pfoo"));
+        assertThrows(RuntimeException.class, () -> Variant.parseMatrix("name:-Xfoo"));
+    }
+}